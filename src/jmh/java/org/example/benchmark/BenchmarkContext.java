@@ -0,0 +1,143 @@
+package org.example.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.App;
+import org.example.entity.Comment;
+import org.example.entity.Hashtag;
+import org.example.entity.Post;
+import org.example.service.PostService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Boots the real application context (AppConfig: Hikari pool, JDBC batching, second-level cache) against the
+// database picked with -Dbench.db. Most benchmarks call the services directly; the embedded server listens on a random
+// port (port()), for the ones that go through HTTP.
+//   h2       (default) in-memory H2 in PostgreSQL mode
+//   postgres an embedded PostgreSQL process (io.zonky embedded-postgres), started and stopped with the context
+final class BenchmarkContext implements AutoCloseable {
+
+    static final int HASHTAG_POOL = 50; // distinct hashtag names the payloads draw from
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(EmbeddedPostgres postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    static BenchmarkContext start() throws IOException {
+        return start(System.getProperty("bench.db", "h2"));
+    }
+
+    static BenchmarkContext start(String database) throws IOException {
+        return start(database, Map.of());
+    }
+
+    // overrides: application properties on top of the ones below, e.g. to switch on an opt-in mode
+    static BenchmarkContext start(String database, Map<String, Object> overrides) throws IOException {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("server.port", "0");
+        properties.put("logging.level.root", "WARN");
+        properties.put("app.jpa.show-sql", "false"); // printing every statement would dominate the measurements
+
+        EmbeddedPostgres postgres = null;
+        if ("postgres".equals(database)) {
+            // Large enough to keep the biggest data set (PostSearchBenchmark) cached, as on a production server
+            postgres = EmbeddedPostgres.builder().setServerConfig("shared_buffers", "1GB").start();
+            properties.put("app.datasource.hikari.jdbc-url", postgres.getJdbcUrl("postgres", "postgres"));
+            properties.put("app.datasource.hikari.username", "postgres");
+            properties.put("app.datasource.hikari.password", "postgres");
+        } else {
+            properties.put("app.datasource.hikari.driver-class-name", "org.h2.Driver");
+            // IGNORE_UNKNOWN_SETTINGS: the pool passes PgJDBC-specific connection properties (see AppConfig)
+            properties.put("app.datasource.hikari.jdbc-url", "jdbc:h2:mem:bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                    + "DEFAULT_NULL_ORDERING=HIGH;IGNORE_UNKNOWN_SETTINGS=TRUE;DB_CLOSE_DELAY=-1");
+            properties.put("app.datasource.hikari.username", "sa");
+            properties.put("app.datasource.hikari.password", "");
+            properties.put("app.jpa.dialect", "org.hibernate.dialect.H2Dialect");
+        }
+
+        properties.putAll(overrides);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(App.class)
+                .properties(properties)
+                .run();
+        return new BenchmarkContext(postgres, context);
+    }
+
+    JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(bean(javax.sql.DataSource.class));
+    }
+
+    int port() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // Creates posts through PostService so the seeded rows look exactly like the ones the benchmarks write
+    List<Long> seed(int posts, int comments, int hashtags) {
+        PostService postService = bean(PostService.class);
+        List<Long> ids = new ArrayList<>(posts);
+        for (int i = 0; i < posts; i++) {
+            ids.add(postService.createPostWithCommentsAndHashtags(post("Seeded post " + i), comments(comments), hashtags(hashtags, i)).getId());
+        }
+        return ids;
+    }
+
+    // Removes every post with an id above lastKeptId (and its comments and hashtag links) and empties the
+    // second-level cache, which doesn't see deletes made over plain JDBC
+    void deletePostsAfter(long lastKeptId) {
+        JdbcTemplate jdbc = jdbcTemplate();
+        jdbc.update("delete from post_hashtag where post_id > ?", lastKeptId);
+        jdbc.update("delete from comment where post_id > ?", lastKeptId);
+        jdbc.update("delete from post where id > ?", lastKeptId);
+        bean(EntityManagerFactory.class).getCache().evictAll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    static Post post(String title) {
+        Post post = new Post();
+        post.setTitle(title);
+        post.setContent("Benchmark content for " + title);
+        return post;
+    }
+
+    static List<Comment> comments(int count) {
+        List<Comment> comments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            comments.add(new Comment("Comment " + i));
+        }
+        return comments;
+    }
+
+    // count names out of the shared pool, starting at offset, so most of them already exist after warmup
+    static List<Hashtag> hashtags(int count, int offset) {
+        List<Hashtag> hashtags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Hashtag hashtag = new Hashtag();
+            hashtag.setName("#tag" + Math.floorMod(offset + i, HASHTAG_POOL));
+            hashtags.add(hashtag);
+        }
+        return hashtags;
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.benchmark;
+
+import org.example.entity.Comment;
+import org.example.response.CommentView;
+import org.example.service.CommentWriteBehindQueue;
+import org.example.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Comment appends from 8 concurrent clients: the synchronous path (PostService.appendComments, a transaction and a
+// commit per request) against write-behind (CommentWriteBehindQueue, one commit per batch).
+// writeBehind waits and retries when the queue is full, as a client honouring 429 would, so once the queue has filled
+// up its throughput is what the flusher sustains and its p99 includes the waits; its p50 is the cost of queueing.
+// Both write to the same posts, spread over POSTS of them: the synchronous appends queue on the post row locks.
+// Throughput is reported in ops/ms, the sampled latency (p50/p99/p99.9) in ms/op.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class CommentWriteBenchmark {
+
+    private static final int POSTS = 100;
+
+    @Param({"1", "10"})
+    public int comments; // per request
+
+    private BenchmarkContext context;
+    private PostService postService;
+    private CommentWriteBehindQueue queue;
+    private List<Long> postIds;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        context = BenchmarkContext.start(System.getProperty("bench.db", "h2"),
+                Map.of("app.comment.write-behind.enabled", "true"));
+        postService = context.bean(PostService.class);
+        queue = context.bean(CommentWriteBehindQueue.class);
+        postIds = context.seed(POSTS, 0, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close(); // drains the queue first
+    }
+
+    @Benchmark
+    public List<CommentView> synchronous() {
+        return postService.appendComments(randomPost(), BenchmarkContext.comments(comments));
+    }
+
+    @Benchmark
+    public boolean writeBehind() {
+        Long postId = randomPost();
+        List<Comment> batch = BenchmarkContext.comments(comments);
+        while (!queue.enqueue(postId, batch)) {
+            LockSupport.parkNanos(100_000); // full: back off and retry
+        }
+        return true;
+    }
+
+    private Long randomPost() {
+        return postIds.get(ThreadLocalRandom.current().nextInt(postIds.size()));
+    }
+}
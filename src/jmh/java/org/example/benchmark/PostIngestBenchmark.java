@@ -0,0 +1,95 @@
+package org.example.benchmark;
+
+import org.example.response.BulkIngestResult;
+import org.example.service.PostIngestService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Bulk ingest (PostIngestService, behind POST /posts/bulk): one invocation parses and stores an NDJSON body of
+// POSTS posts, in chunks of app.ingest.chunk-size. Throughput is reported in posts/s; inserted rows per second are
+// posts/s * (1 + comments + hashtags). Statement logging is off (see BenchmarkContext), as it should be in production.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class PostIngestBenchmark {
+
+    private static final int POSTS = 10_000;
+
+    @Param({"1"})
+    public int comments;
+
+    @Param({"1"})
+    public int hashtags;
+
+    private BenchmarkContext context;
+    private PostIngestService postIngestService;
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        context = BenchmarkContext.start();
+        postIngestService = context.bean(PostIngestService.class);
+        body = ndjson();
+    }
+
+    // Keeps the tables empty, otherwise later iterations would run against ever larger tables
+    @TearDown(Level.Iteration)
+    public void deleteIngestedPosts() {
+        context.deletePostsAfter(0);
+        context.jdbcTemplate().update("delete from change_event");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSTS)
+    public BulkIngestResult ingest() throws IOException {
+        BulkIngestResult result = postIngestService.ingest(new ByteArrayInputStream(body));
+        if (result.getAccepted() != POSTS) {
+            throw new IllegalStateException("Ingest stored " + result.getAccepted() + " of " + POSTS + " posts");
+        }
+        return result;
+    }
+
+    private byte[] ndjson() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < POSTS; i++) {
+            ndjson.append("{\"post\":{\"title\":\"Ingested post ").append(i)
+                    .append("\",\"content\":\"Benchmark content for ingested post ").append(i).append("\"}");
+            ndjson.append(",\"comments\":[");
+            for (int c = 0; c < comments; c++) {
+                ndjson.append(c == 0 ? "" : ",").append("{\"text\":\"Comment ").append(c).append("\"}");
+            }
+            ndjson.append("],\"hashtags\":[");
+            for (int h = 0; h < hashtags; h++) {
+                ndjson.append(h == 0 ? "" : ",").append("{\"name\":\"#tag")
+                        .append(Math.floorMod(i + h, BenchmarkContext.HASHTAG_POOL)).append("\"}");
+            }
+            ndjson.append("]}\n");
+        }
+        return ndjson.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
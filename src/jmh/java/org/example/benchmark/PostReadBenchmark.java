@@ -0,0 +1,92 @@
+package org.example.benchmark;
+
+import org.example.entity.Post;
+import org.example.response.CursorPage;
+import org.example.response.PostDetail;
+import org.example.response.PostSummary;
+import org.example.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Read path over a fixed table, for posts of growing size: the entity read (getPostById) next to the DTO projections
+// the API serves (getPostDetail, getPostDetails, getPostSummaries); compare gc.alloc.rate.norm for heap per call.
+// Runs with the second-level cache on, as in production; after warmup most entity reads are served from it.
+// Throughput is reported in ops/ms, the sampled latency (p50/p99/p99.9) in ms/op.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PostReadBenchmark {
+
+    private static final int SEEDED_POSTS = 1_000;
+
+    @Param({"0", "10", "100"})
+    public int comments;
+
+    @Param({"5"})
+    public int hashtags;
+
+    private BenchmarkContext context;
+    private PostService postService;
+    private List<Long> seededIds;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        context = BenchmarkContext.start();
+        postService = context.bean(PostService.class);
+        seededIds = context.seed(SEEDED_POSTS, comments, hashtags);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public Post getPostById() {
+        return postService.getPostById(seededIds.get(ThreadLocalRandom.current().nextInt(seededIds.size())));
+    }
+
+    @Benchmark
+    public PostDetail getPostDetail() {
+        return postService.getPostDetail(seededIds.get(ThreadLocalRandom.current().nextInt(seededIds.size())));
+    }
+
+    @Benchmark
+    public CursorPage<PostDetail> getPostDetailsDefaultPage() {
+        return postService.getPostDetails(randomCursor(PostService.DEFAULT_PAGE_SIZE), null);
+    }
+
+    @Benchmark
+    public CursorPage<PostDetail> getPostDetailsMaxPage() {
+        return postService.getPostDetails(randomCursor(PostService.MAX_PAGE_SIZE), PostService.MAX_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPage<PostSummary> getPostSummariesDefaultPage() {
+        return postService.getPostSummaries(randomCursor(PostService.DEFAULT_PAGE_SIZE), null);
+    }
+
+    // A cursor with at least pageSize posts after it, so every call returns a full page
+    private Long randomCursor(int pageSize) {
+        return seededIds.get(ThreadLocalRandom.current().nextInt(seededIds.size() - pageSize));
+    }
+}
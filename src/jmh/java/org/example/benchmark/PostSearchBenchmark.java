@@ -0,0 +1,174 @@
+package org.example.benchmark;
+
+import org.example.response.CursorPage;
+import org.example.response.PostSearchHit;
+import org.example.service.PostSearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Full-text search (PostSearchService) over a large table. Always runs against embedded PostgreSQL, whatever
+// -Dbench.db says: search is PostgreSQL-only.
+// The posts are generated in the database (generate_series) from a fixed vocabulary with a skewed word distribution,
+// so there are rare words (a couple of thousand matches per million posts), common ones (tens of thousands up to most
+// posts, ranking capped by app.search.max-candidates) and everything in between. Every post carries two of the 50 hashtags.
+// Seeding 1M posts and building the GIN index takes a few minutes; -p posts=100000 for a quick run.
+// Latency percentiles (p50/p99/p99.9) are in ms/op.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PostSearchBenchmark {
+
+    private static final int VOCABULARY = 5_000;
+    private static final int TITLE_WORDS = 6;
+    private static final int CONTENT_WORDS = 25; // post.content is a varchar(255)
+
+    @Param({"1000000"})
+    public int posts;
+
+    private BenchmarkContext context;
+    private PostSearchService postSearchService;
+    private List<String> rareWords;
+    private List<String> commonWords;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        context = BenchmarkContext.start("postgres");
+        postSearchService = context.bean(PostSearchService.class);
+        List<String> vocabulary = vocabulary();
+        seed(context.jdbcTemplate(), vocabulary);
+        // Word i is drawn with probability ~ i^(-2/3): the first 50 are in 1-50% of the posts, the last 1000 in ~0.2%
+        commonWords = vocabulary.subList(0, 50);
+        rareWords = vocabulary.subList(VOCABULARY - 1_000, VOCABULARY);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPage<PostSearchHit> rareWord() {
+        return postSearchService.search(pick(rareWords), null, null, null);
+    }
+
+    @Benchmark
+    public CursorPage<PostSearchHit> commonWord() {
+        return postSearchService.search(pick(commonWords), null, null, null);
+    }
+
+    // Both words must match: a common one narrowed by a rare one
+    @Benchmark
+    public CursorPage<PostSearchHit> twoWords() {
+        return postSearchService.search(pick(commonWords) + " " + pick(rareWords), null, null, null);
+    }
+
+    @Benchmark
+    public CursorPage<PostSearchHit> commonWordWithTag() {
+        return postSearchService.search(pick(commonWords), Collections.singletonList(randomTag()), null, null);
+    }
+
+    // Few matches carry the tag: the candidates are better found through the word than walked along the tag
+    @Benchmark
+    public CursorPage<PostSearchHit> rareWordWithTag() {
+        return postSearchService.search(pick(rareWords), Collections.singletonList(randomTag()), null, null);
+    }
+
+    @Benchmark
+    public CursorPage<PostSearchHit> commonWordThirdPage() {
+        return postSearchService.search(pick(commonWords), null, 40L, null);
+    }
+
+    @Benchmark
+    public CursorPage<PostSearchHit> tagOnly() {
+        return postSearchService.search(null, Collections.singletonList(randomTag()), null, null);
+    }
+
+    private static String pick(List<String> words) {
+        return words.get(ThreadLocalRandom.current().nextInt(words.size()));
+    }
+
+    private static String randomTag() {
+        return "#tag" + ThreadLocalRandom.current().nextInt(BenchmarkContext.HASHTAG_POOL);
+    }
+
+    // Lower-case made-up words, the same on every run
+    private static List<String> vocabulary() {
+        Random random = new Random(42);
+        List<String> words = new ArrayList<>(VOCABULARY);
+        while (words.size() < VOCABULARY) {
+            StringBuilder word = new StringBuilder();
+            int length = 5 + random.nextInt(4);
+            for (int i = 0; i < length; i++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            if (!words.contains(word.toString())) {
+                words.add(word.toString());
+            }
+        }
+        return words;
+    }
+
+    // One connection throughout, so the session settings apply. The GIN index is dropped during the load and built
+    // once at the end, which is much faster than maintaining it row by row.
+    private void seed(JdbcTemplate jdbc, List<String> vocabulary) {
+        jdbc.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set maintenance_work_mem = '256MB'");
+                statement.execute("drop index if exists idx_post_search_vector");
+                statement.execute("create table bench_vocabulary (i int primary key, word text not null)");
+                StringBuilder insert = new StringBuilder("insert into bench_vocabulary values ");
+                for (int i = 0; i < vocabulary.size(); i++) {
+                    insert.append(i == 0 ? "" : ",").append('(').append(i + 1).append(",'").append(vocabulary.get(i)).append("')");
+                }
+                statement.execute(insert.toString());
+                statement.execute("insert into hashtag (id, name) select nextval('hashtag_seq'), '#tag' || t"
+                        + " from generate_series(0, " + (BenchmarkContext.HASHTAG_POOL - 1) + ") t");
+                statement.execute("with vocabulary as (select array_agg(word order by i) words from bench_vocabulary)"
+                        + " insert into post (id, version, title, content)"
+                        + " select g, 0, " + randomText(TITLE_WORDS) + ", " + randomText(CONTENT_WORDS)
+                        + " from vocabulary, generate_series(1, " + posts + ") g");
+                statement.execute("select setval('post_seq', " + posts + " + 1000)");
+                // Tags (g % 50) and (g % 50 + 25) % 50
+                statement.execute("insert into post_hashtag (post_id, hashtag_id)"
+                        + " select p.id, h.id from post p join hashtag h on h.name in ('#tag' || (p.id % 50), '#tag' || ((p.id % 50 + 25) % 50))");
+                statement.execute("drop table bench_vocabulary");
+                statement.execute("create index idx_post_search_vector on post using gin (search_vector)");
+                statement.execute("vacuum analyze post");
+                statement.execute("vacuum analyze post_hashtag");
+            }
+            return null;
+        });
+    }
+
+    // words random vocabulary words. Correlated with g so that PostgreSQL draws new ones for every row, and the
+    // aggregate refers to w so that it is evaluated per subquery rather than as an aggregate of the outer query.
+    private static String randomText(int words) {
+        return "(select string_agg(words[1 + floor(power(random(), 3) * " + VOCABULARY + ")::int + 0 * w], ' ')"
+                + " from generate_series(1, " + words + ") w where g > 0)";
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.benchmark;
+
+import org.example.entity.Hashtag;
+import org.example.entity.Post;
+import org.example.request.PostPatch;
+import org.example.response.PostVersion;
+import org.example.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Small edits to posts with many hashtags: PUT (updatePost, which replaces the whole hashtag collection) against
+// PATCH (patchPost, which writes only the join rows that changed). Each operation swaps `changed` of a post's `tags`
+// hashtags for others and the next one on the same post swaps them back, so every call is a real change of that size.
+// Throughput is reported in ops/ms, the sampled latency (p50/p99/p99.9) in ms/op.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PostUpdateBenchmark {
+
+    private static final int SEEDED_POSTS = 200;
+
+    @Param({"200"})
+    public int tags;
+
+    @Param({"1", "20"})
+    public int changed;
+
+    private BenchmarkContext context;
+    private PostService postService;
+    private List<Long> seededIds;
+
+    // Per seeded post: whether its first `changed` tags are currently the swapped ones
+    private boolean[] swapped;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        context = BenchmarkContext.start();
+        postService = context.bean(PostService.class);
+        seededIds = new ArrayList<>(SEEDED_POSTS);
+        for (int i = 0; i < SEEDED_POSTS; i++) {
+            seededIds.add(postService.createPostWithCommentsAndHashtags(BenchmarkContext.post("Tagged post " + i),
+                    BenchmarkContext.comments(10), hashtags(false)).getId());
+        }
+        swapped = new boolean[SEEDED_POSTS];
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public Post put() {
+        int post = ThreadLocalRandom.current().nextInt(SEEDED_POSTS);
+        return postService.updatePost(seededIds.get(post), BenchmarkContext.post("Updated post"), hashtags(swap(post)));
+    }
+
+    @Benchmark
+    public PostVersion patch() {
+        int post = ThreadLocalRandom.current().nextInt(SEEDED_POSTS);
+        PostPatch patch = new PostPatch();
+        patch.setHashtags(hashtags(swap(post)));
+        return postService.patchPost(seededIds.get(post), patch);
+    }
+
+    private boolean swap(int post) {
+        return swapped[post] = !swapped[post];
+    }
+
+    private List<Hashtag> hashtags(boolean swapped) {
+        List<Hashtag> hashtags = new ArrayList<>(tags);
+        for (int i = 0; i < tags; i++) {
+            Hashtag hashtag = new Hashtag();
+            hashtag.setName((swapped && i < changed ? "#swapped-tag" : "#bench-tag") + i);
+            hashtags.add(hashtag);
+        }
+        return hashtags;
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.benchmark;
+
+import org.example.entity.Post;
+import org.example.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Write path: createPostWithCommentsAndHashtags and updatePost for posts of growing size.
+// comments=1000 is the "post with 1k comments" insert case; inserted rows per second = ops/s * (1 + comments + hashtags).
+// Throughput is reported in ops/ms, the sampled latency (p50/p99/p99.9) in ms/op.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PostWriteBenchmark {
+
+    private static final int SEEDED_POSTS = 200; // posts that update() picks from
+
+    @Param({"1", "100", "1000"})
+    public int comments;
+
+    @Param({"5"})
+    public int hashtags;
+
+    private BenchmarkContext context;
+    private PostService postService;
+    private List<Long> seededIds;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        context = BenchmarkContext.start();
+        postService = context.bean(PostService.class);
+        seededIds = context.seed(SEEDED_POSTS, comments, hashtags);
+    }
+
+    // Keeps the tables at the seeded size, otherwise later iterations would run against ever larger tables
+    @TearDown(Level.Iteration)
+    public void deleteCreatedPosts() {
+        context.deletePostsAfter(seededIds.get(seededIds.size() - 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public Post create() {
+        int offset = ThreadLocalRandom.current().nextInt(BenchmarkContext.HASHTAG_POOL);
+        return postService.createPostWithCommentsAndHashtags(BenchmarkContext.post("Benchmark post"),
+                BenchmarkContext.comments(comments), BenchmarkContext.hashtags(hashtags, offset));
+    }
+
+    // Replaces title, content and the hashtag set of an existing post
+    @Benchmark
+    public Post update() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long id = seededIds.get(random.nextInt(seededIds.size()));
+        return postService.updatePost(id, BenchmarkContext.post("Updated post"),
+                BenchmarkContext.hashtags(hashtags, random.nextInt(BenchmarkContext.HASHTAG_POOL)));
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Load test through HTTP: 256 concurrent clients, more than Tomcat's 200 request threads, against the server on
+// platform threads (the default) and on virtual threads (app.threads.virtual, with DatabaseConcurrencyLimiter).
+//   readPost       GET /posts/{id}, mostly served from the query cache
+//   appendComment  POST /posts/{id}/comments, one transaction and commit per request: blocked on the database
+// Each outcome is counted next to the throughput (Outcomes): ok (200), refused (429 from the limiter) and failed (5xx,
+// e.g. no connection from the pool within its connection-timeout), so a mode that answers fast by failing shows it.
+// Throughput is reported in ops/ms, the sampled latency (p50/p99/p99.9) in ms/op.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(256)
+@Fork(1)
+public class RequestThreadingBenchmark {
+
+    private static final int POSTS = 100;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private BenchmarkContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private List<Long> postIds;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        context = BenchmarkContext.start(System.getProperty("bench.db", "h2"),
+                // A client waits at most as long for a permit as it would for a connection from the pool
+                Map.of("app.threads.virtual", String.valueOf("virtual".equals(threads)),
+                        "app.threads.limiter.max-wait", "PT3S"));
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + context.port() + "/posts/";
+        postIds = context.seed(POSTS, 5, 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public String readPost(Outcomes outcomes) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + randomPost())).GET().build(), outcomes);
+    }
+
+    @Benchmark
+    public String appendComment(Outcomes outcomes) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + randomPost() + "/comments"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("[{\"text\":\"Benchmark comment\"}]"))
+                .build(), outcomes);
+    }
+
+    private String send(HttpRequest request, Outcomes outcomes) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 200) {
+            outcomes.ok++;
+        } else if (response.statusCode() == 429) {
+            outcomes.refused++;
+        } else {
+            outcomes.failed++;
+        }
+        return response.body();
+    }
+
+    private Long randomPost() {
+        return postIds.get(ThreadLocalRandom.current().nextInt(postIds.size()));
+    }
+
+    // Responses per outcome, reported by JMH as extra throughput lines (readPost:ok, readPost:failed, ...)
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+
+        public long ok;
+
+        public long refused;
+
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ok = 0;
+            refused = 0;
+            failed = 0;
+        }
+    }
+}
@@ -1,17 +1,20 @@
 package org.example.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import javax.cache.CacheManager;
 import javax.sql.DataSource;
 import java.util.Properties;
 
@@ -19,20 +22,42 @@ import java.util.Properties;
 @EnableJpaRepositories("org.example.repository")
 @ComponentScan(basePackages = "org.example")
 public class AppConfig {
+    // Pooled DataSource: connections are opened once and reused instead of one physical connection per transaction.
+    // The values below are defaults; any HikariConfig property can be overridden per node with
+    // app.datasource.hikari.* (e.g. app.datasource.hikari.maximum-pool-size=40).
+    // Pool metrics (hikaricp.connections.active/idle/pending and the acquire timer) are published through
+    // Micrometer and can be read from /actuator/metrics, and so are the statements run on its connections (see MetricsConfig).
     @Bean
-    public DataSource dataSource() {
-        // instantiate, configure and return DataSource
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+    @ConfigurationProperties(prefix = "app.datasource.hikari")
+    public HikariDataSource dataSource(SqlStatementRecorder sqlStatementRecorder) {
+        HikariDataSource dataSource = new InstrumentedDataSource(sqlStatementRecorder);
+        dataSource.setPoolName("hospital-db");
         dataSource.setDriverClassName("org.postgresql.Driver");
-        dataSource.setUrl("jdbc:postgresql://localhost:5432/hospital_db");
+        dataSource.setJdbcUrl("jdbc:postgresql://localhost:5432/hospital_db");
         dataSource.setUsername("postgres");
         dataSource.setPassword("111111");
 
+        dataSource.setMaximumPoolSize(20);
+        dataSource.setMinimumIdle(5);
+        dataSource.setConnectionTimeout(3_000); // fail fast instead of queueing requests for 30s when the pool is exhausted
+        dataSource.setLeakDetectionThreshold(20_000); // log a stack trace for connections held longer than this
+
+        // PgJDBC statement cache: server-side prepare after 3 executions, keep up to 256 statements per connection
+        dataSource.addDataSourceProperty("prepareThreshold", "3");
+        dataSource.addDataSourceProperty("preparedStatementCacheQueries", "256");
+        dataSource.addDataSourceProperty("preparedStatementCacheSizeMiB", "5");
+        // Send each JDBC batch of INSERTs as multi-row INSERT statements instead of one statement per row
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+
         return dataSource;
     }
 
+    // app.jpa.dialect exists so the JMH benchmarks (-Pjmh) can run the same setup against H2. app.jpa.show-sql prints
+    // every statement to stdout, for debugging only: SqlStatementRecorder logs a sample of them instead.
     @Bean
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource, CacheManager hibernateCacheManager,
+                                                                       @Value("${app.jpa.dialect:org.hibernate.dialect.PostgreSQLDialect}") String dialect,
+                                                                       @Value("${app.jpa.show-sql:false}") boolean showSql) {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource);
         em.setPackagesToScan("org.example.entity");  // Make sure your entity classes are in this package
@@ -40,9 +65,19 @@ public class AppConfig {
 
         // Hibernate Properties
         Properties props = new Properties();
-        props.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        props.put("hibernate.dialect", dialect);
         props.put("hibernate.hbm2ddl.auto", "update");
-        props.put("hibernate.show_sql", "true");
+        props.put("hibernate.show_sql", String.valueOf(showSql));
+        // JDBC batching: group INSERT/UPDATE statements per table so saveAll() sends one batch instead of one round trip per row
+        props.put("hibernate.jdbc.batch_size", "50");
+        props.put("hibernate.order_inserts", "true");
+        props.put("hibernate.order_updates", "true");
+        // Second-level and query cache; the regions (sizes, TTLs, metrics) are set up in CacheConfig
+        props.put("hibernate.cache.use_second_level_cache", "true");
+        props.put("hibernate.cache.use_query_cache", "true");
+        props.put("hibernate.cache.region.factory_class", "jcache");
+        props.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+        props.put("hibernate.javax.cache.missing_cache_strategy", "fail"); // every region must be configured explicitly
 
         em.setJpaProperties(props);
 
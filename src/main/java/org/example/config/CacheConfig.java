@@ -0,0 +1,69 @@
+package org.example.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+// Regions of the Hibernate second-level cache, backed by in-process Caffeine caches through JCache.
+// Swapping the provider (e.g. Ehcache or a clustered JCache implementation) only means building a different CacheManager here.
+@Configuration
+public class CacheConfig {
+
+    public static final String POST_REGION = "post";
+    public static final String POST_COMMENTS_REGION = "post.comments";
+    public static final String POST_HASHTAGS_REGION = "post.hashtags";
+    public static final String COMMENT_REGION = "comment";
+    public static final String HASHTAG_REGION = "hashtag";
+    public static final String POST_PAGES_REGION = "post-pages";
+
+    // Results of cacheable queries that don't name a region
+    static final String DEFAULT_QUERY_REGION = "default-query-results-region";
+
+    // Hibernate's record of when each table was last written. The query cache compares cached results against it,
+    // so this region must never lose entries to size or time limits; it only holds one entry per table.
+    static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${app.cache.entity.max-size:10000}") long entityMaxSize,
+                                              @Value("${app.cache.entity.ttl:PT10M}") Duration entityTtl,
+                                              @Value("${app.cache.query.max-size:1000}") long queryMaxSize,
+                                              @Value("${app.cache.query.ttl:PT1M}") Duration queryTtl,
+                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+
+        for (String region : new String[] {POST_REGION, POST_COMMENTS_REGION, POST_HASHTAGS_REGION, COMMENT_REGION, HASHTAG_REGION}) {
+            cacheManager.createCache(region, regionConfiguration(entityMaxSize, entityTtl));
+        }
+        cacheManager.createCache(POST_PAGES_REGION, regionConfiguration(queryMaxSize, queryTtl));
+        cacheManager.createCache(DEFAULT_QUERY_REGION, regionConfiguration(queryMaxSize, queryTtl));
+        cacheManager.createCache(TIMESTAMPS_REGION, regionConfiguration(null, null));
+
+        // cache.gets{result=hit|miss}, cache.puts, cache.removals and cache.evictions per region
+        meterRegistry.ifAvailable(registry -> cacheManager.getCacheNames().forEach(name ->
+                JCacheMetrics.monitor(registry, cacheManager.getCache(name), Tags.of("cacheManager", "hibernate"))));
+        return cacheManager;
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(Long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (maxSize != null) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.repository.CacheInvalidationEntryRepository;
+import org.example.service.CacheInvalidationTransport;
+import org.example.service.JdbcCacheInvalidationTransport;
+import org.example.service.LoopbackCacheInvalidationTransport;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// How CacheInvalidationBus reaches the other nodes (app.cache.invalidation.transport):
+//   loopback (default) in-JVM only: a single node, nothing to tell anyone
+//   jdbc               rows in the shared database, polled by every node (JdbcCacheInvalidationTransport)
+// Another transport (multicast, a broker) is a CacheInvalidationTransport bean marked @Primary.
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "loopback", matchIfMissing = true)
+    public CacheInvalidationTransport loopbackCacheInvalidationTransport() {
+        return new LoopbackCacheInvalidationTransport(new LoopbackCacheInvalidationTransport.Hub());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "jdbc")
+    public CacheInvalidationTransport jdbcCacheInvalidationTransport(CacheInvalidationEntryRepository repository,
+                                                                     @Value("${app.cache.invalidation.jdbc.poll-interval:PT0.5S}") Duration pollInterval,
+                                                                     @Value("${app.cache.invalidation.jdbc.margin:PT5S}") Duration margin,
+                                                                     @Value("${app.cache.invalidation.jdbc.retention:PT10M}") Duration retention,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return new JdbcCacheInvalidationTransport(repository, pollInterval, margin, retention, meterRegistry);
+    }
+}
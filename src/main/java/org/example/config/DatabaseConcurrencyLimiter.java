@@ -0,0 +1,70 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.exception.TooManyRequestsException;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Caps the requests handled at once at about what the connection pool can serve. On platform threads Tomcat's
+// thread pool does that implicitly; on virtual threads (VirtualThreadConfig) every accepted connection gets a thread,
+// and without a cap thousands of them would pile up in Hikari's wait queue, each failing after connection-timeout.
+// Here a request waits at most maxWait for a permit, in arrival order, and is then refused with 429 (the handler is
+// never called). Counts every request through the DispatcherServlet; nearly all of them use the database.
+// A permit is held until the handler returns: the body of an async response (GET /posts/stream) is written
+// outside of it. Metrics: db.limiter.available and .waiting (gauges), .rejected (counter).
+public class DatabaseConcurrencyLimiter implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = DatabaseConcurrencyLimiter.class.getName() + ".permit";
+
+    private final Semaphore permits;
+    private final long maxWaitNanos;
+    private final Counter rejected;
+
+    public DatabaseConcurrencyLimiter(int maxConcurrent, Duration maxWait, MeterRegistry registry) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.maxWaitNanos = maxWait.toNanos();
+        MeterRegistry meters = registry == null ? new SimpleMeterRegistry() : registry;
+        Gauge.builder("db.limiter.available", permits, Semaphore::availablePermits).register(meters);
+        Gauge.builder("db.limiter.waiting", permits, Semaphore::getQueueLength).register(meters);
+        this.rejected = meters.counter("db.limiter.rejected");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws InterruptedException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true; // the dispatch that completes an async response: its permit was already released
+        }
+        if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many requests waiting for the database, retry later");
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// The Hikari pool, handing out connections whose statements SqlStatementRecorder times. Still a HikariDataSource, so
+// the app.datasource.hikari.* binding, the pool metrics and VirtualThreadConfig see the pool as before.
+public class InstrumentedDataSource extends HikariDataSource {
+
+    private final SqlStatementRecorder recorder;
+
+    public InstrumentedDataSource(SqlStatementRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return recorder.wrap(super.getConnection());
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+// Where the time of a request goes, all readable from /actuator/metrics:
+//   http.server.requests           per endpoint (Spring Boot's own), with a percentile histogram (application.properties)
+//   post.service                   per PostService method (@Timed on the class, through TimedAspect)
+//   db.statements                  every SQL statement by type (SqlStatementRecorder, on the pool's connections)
+//   http.server.requests.queries   statements per request, and the query budget (RequestMetricsFilter)
+// Slow requests, requests over the query budget and a sample of the SQL statements are logged as key=value lines.
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new TimedAspect(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    public SqlStatementRecorder sqlStatementRecorder(@Value("${app.metrics.sql-log.sample-rate:0.001}") double sampleRate,
+                                                     @Value("${app.metrics.sql-log.slow-statement:PT0.2S}") Duration slowStatement,
+                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return new SqlStatementRecorder(sampleRate, slowStatement, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    // First in the chain, so the time and the statements include every other filter
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(@Value("${app.metrics.query-budget:25}") int queryBudget,
+                                                                            @Value("${app.metrics.slow-request:PT1S}") Duration slowRequest,
+                                                                            ObjectProvider<MeterRegistry> meterRegistry) {
+        FilterRegistrationBean<RequestMetricsFilter> registration = new FilterRegistrationBean<>(
+                new RequestMetricsFilter(queryBudget, slowRequest, meterRegistry.getIfAvailable(SimpleMeterRegistry::new)));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
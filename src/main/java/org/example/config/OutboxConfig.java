@@ -0,0 +1,34 @@
+package org.example.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.service.ChangeEventSink;
+import org.example.service.FileChangeEventSink;
+import org.example.service.InMemoryChangeEventSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// The sink ChangeEventRelay publishes the outbox to (app.outbox.sink):
+//   memory (default) the last events in memory; consumers sync through GET /changes
+//   file             newline-delimited JSON appended to app.outbox.sink.file, fsynced per batch
+// Another destination (a broker, a webhook) is a ChangeEventSink bean marked @Primary.
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.outbox.sink", havingValue = "memory", matchIfMissing = true)
+    public InMemoryChangeEventSink inMemoryChangeEventSink(@Value("${app.outbox.sink.capacity:10000}") int capacity) {
+        return new InMemoryChangeEventSink(capacity);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.outbox.sink", havingValue = "file")
+    public ChangeEventSink fileChangeEventSink(ObjectMapper objectMapper,
+                                               @Value("${app.outbox.sink.file:change-events.ndjson}") Path path) throws IOException {
+        return new FileChangeEventSink(objectMapper, path);
+    }
+}
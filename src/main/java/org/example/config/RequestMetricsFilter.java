@@ -0,0 +1,84 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// SQL per request: the statements a request ran (see RequestSqlStats) go to http.server.requests.queries (how many)
+// and http.server.requests.query.time, tagged with method and uri (the mapping's pattern, as in http.server.requests).
+// A request that runs more than queryBudget statements counts in http.server.requests.query.budget.exceeded and is
+// logged with its most repeated statement: usually a lazy association loaded once per row (N+1).
+// Requests slower than slowRequest are logged as well. Only the request's own thread is counted: for an async response
+// (GET /changes, GET /posts/stream) that is the part up to the handler's return.
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    private final int queryBudget;
+    private final long slowRequestNanos;
+    private final MeterRegistry registry;
+
+    public RequestMetricsFilter(int queryBudget, Duration slowRequest, MeterRegistry registry) {
+        this.queryBudget = queryBudget;
+        this.slowRequestNanos = slowRequest.toNanos();
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        RequestSqlStats stats = RequestSqlStats.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestSqlStats.finish();
+            record(request, response, stats, System.nanoTime() - start);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, RequestSqlStats stats, long nanos) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        String method = request.getMethod();
+        DistributionSummary.builder("http.server.requests.queries")
+                .tags("method", method, "uri", uri)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(stats.getStatements());
+        Timer.builder("http.server.requests.query.time")
+                .tags("method", method, "uri", uri)
+                .register(registry)
+                .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.getStatements() > queryBudget) {
+            Counter.builder("http.server.requests.query.budget.exceeded")
+                    .tags("method", method, "uri", uri)
+                    .register(registry)
+                    .increment();
+            Map.Entry<String, Integer> repeated = stats.mostRepeated();
+            LOG.warn("query budget exceeded method={} uri={} statements={} budget={} most_repeated_count={} most_repeated=\"{}\"",
+                    method, uri, stats.getStatements(), queryBudget,
+                    repeated == null ? 0 : repeated.getValue(), repeated == null ? "" : repeated.getKey());
+        }
+        if (nanos >= slowRequestNanos) {
+            LOG.warn("slow request method={} uri={} path={} status={} duration_ms={} statements={} sql_ms={}",
+                    method, uri, request.getRequestURI(), response.getStatus(), nanos / 1_000_000,
+                    stats.getStatements(), stats.getNanos() / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// The SQL statements run for the request on the current thread: RequestMetricsFilter opens them, SqlStatementRecorder
+// adds to them. Statements run on another thread (the body of GET /posts/stream, background writes) aren't counted.
+public final class RequestSqlStats {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private static final int MAX_DISTINCT_STATEMENTS = 256; // repeats are only tracked for the first ones seen
+
+    private int statements;
+    private long nanos;
+    private final Map<String, Integer> repeats = new HashMap<>();
+
+    private RequestSqlStats() {}
+
+    static RequestSqlStats start() {
+        RequestSqlStats stats = new RequestSqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void finish() {
+        CURRENT.remove();
+    }
+
+    // null outside of a request
+    static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    void record(String sql, long nanos) {
+        statements++;
+        this.nanos += nanos;
+        if (sql != null && (repeats.size() < MAX_DISTINCT_STATEMENTS || repeats.containsKey(sql))) {
+            repeats.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    // The statement run most often, the usual suspect when a request goes over its query budget; null if none
+    public Map.Entry<String, Integer> mostRepeated() {
+        return repeats.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// @Scheduled background jobs (HashtagTrendingService.flush, ChangeEventRelay.deleteExpired, ...) all run on one
+// scheduler thread: Spring Boot's auto-configured task scheduler when started through App, Spring's default local
+// single-threaded scheduler when deployed through AppInitializer. Keep the jobs short.
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
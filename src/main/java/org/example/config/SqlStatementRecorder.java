@@ -0,0 +1,138 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Times every statement run on a connection it wrapped (InstrumentedDataSource wraps all of the pool's), whether it
+// comes from Hibernate or from JdbcTemplate. A batch is one statement: it is one round trip.
+// Each one is added to the db.statements timer (tag type: select, insert, update, delete or other) and to the current
+// request's RequestSqlStats. Instead of hibernate.show_sql, a sample of the statements (sampleRate) and every one
+// slower than slowStatement are logged to org.example.sql as one key=value line, with the SQL but not its parameters.
+public class SqlStatementRecorder {
+
+    private static final Logger SQL_LOG = LoggerFactory.getLogger("org.example.sql");
+
+    private static final String[] TYPES = { "select", "insert", "update", "delete" };
+
+    private final double sampleRate;
+    private final long slowStatementNanos;
+    private final Map<String, Timer> timers;
+    private final Timer otherTimer;
+
+    public SqlStatementRecorder(double sampleRate, Duration slowStatement, MeterRegistry registry) {
+        this.sampleRate = sampleRate;
+        this.slowStatementNanos = slowStatement.toNanos();
+        this.timers = Map.of(
+                "select", timer(registry, "select"),
+                "insert", timer(registry, "insert"),
+                "update", timer(registry, "update"),
+                "delete", timer(registry, "delete"));
+        this.otherTimer = timer(registry, "other");
+    }
+
+    public Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    Object identity = identity(proxy, method, args);
+                    if (identity != null) {
+                        return identity;
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement) {
+                        // prepareStatement / prepareCall: the SQL is known now; createStatement: it comes with execute
+                        String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                        return wrap(statement, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement wrap(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        String[] batchSql = { null }; // last SQL added to a plain Statement's batch
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    Object identity = identity(proxy, method, args);
+                    if (identity != null) {
+                        return identity;
+                    }
+                    String name = method.getName();
+                    if (name.equals("addBatch") && args != null && args.length == 1) {
+                        batchSql[0] = (String) args[0];
+                    }
+                    if (!name.startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+                    String sql = args != null && args.length > 0 && args[0] instanceof String given ? given
+                            : preparedSql != null ? preparedSql : batchSql[0];
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        record(sql, System.nanoTime() - start, name.contains("Batch"));
+                    }
+                });
+    }
+
+    void record(String sql, long nanos, boolean batch) {
+        String type = type(sql);
+        timers.getOrDefault(type, otherTimer).record(nanos, TimeUnit.NANOSECONDS);
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null) {
+            stats.record(sql, nanos);
+        }
+        boolean slow = nanos >= slowStatementNanos;
+        if ((slow || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) && SQL_LOG.isInfoEnabled()) {
+            SQL_LOG.info("sql type={} duration_us={} batch={} slow={} request_statements={} statement=\"{}\"",
+                    type, nanos / 1_000, batch, slow, stats == null ? "-" : stats.getStatements(), sql);
+        }
+    }
+
+    private static String type(String sql) {
+        if (sql != null) {
+            String start = sql.stripLeading();
+            for (String type : TYPES) {
+                if (start.regionMatches(true, 0, type, 0, type.length())) {
+                    return type;
+                }
+            }
+        }
+        return "other";
+    }
+
+    // equals and hashCode of a proxy are its own, not the wrapped object's
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> args != null && args.length == 1 ? proxy == args[0] : null;
+            case "hashCode" -> method.getParameterCount() == 0 ? System.identityHashCode(proxy) : null;
+            default -> null;
+        };
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Timer timer(MeterRegistry registry, String type) {
+        return Timer.builder("db.statements").tag("type", type).register(registry);
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+// Opt-in (app.threads.virtual=true): Tomcat runs every request on its own virtual thread instead of its pool of 200
+// platform threads, so a request blocked on JDBC no longer holds one of a few hundred threads. What bounds the work
+// then is the connection pool, which DatabaseConcurrencyLimiter enforces at the door (WebMvcConfig registers it).
+@Configuration
+@ConditionalOnProperty(name = "app.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadExecutor() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    // maxConcurrent 0 (the default) means the pool's maximum size: as many requests in flight as connections
+    @Bean
+    public DatabaseConcurrencyLimiter databaseConcurrencyLimiter(HikariDataSource dataSource,
+                                                                 @Value("${app.threads.limiter.max-concurrent:0}") int maxConcurrent,
+                                                                 @Value("${app.threads.limiter.max-wait:PT1S}") Duration maxWait,
+                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        int permits = maxConcurrent > 0 ? maxConcurrent : dataSource.getMaximumPoolSize();
+        return new DatabaseConcurrencyLimiter(permits, maxWait, meterRegistry.getIfAvailable());
+    }
+}
@@ -1,10 +1,14 @@
 package org.example.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.TypeExcludeFilter;
 import org.springframework.context.annotation.Bean;
 
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.view.InternalResourceViewResolver;
@@ -16,9 +20,19 @@ import org.springframework.web.servlet.view.JstlView;
 
 @Configuration
 @EnableWebMvc
-@ComponentScan(basePackages = { "org.example" })
+// TypeExcludeFilter is a no-op at runtime, but lets slice tests such as @WebMvcTest keep AppConfig
+// (and its PostgreSQL DataSource) out of the context, the same way @SpringBootApplication's scan does.
+@ComponentScan(basePackages = { "org.example" },
+        excludeFilters = @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class))
 public class WebMvcConfig implements WebMvcConfigurer{
 
+    // Only defined in virtual-thread mode (VirtualThreadConfig)
+    private final ObjectProvider<DatabaseConcurrencyLimiter> databaseConcurrencyLimiter;
+
+    public WebMvcConfig(ObjectProvider<DatabaseConcurrencyLimiter> databaseConcurrencyLimiter) {
+        this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+    }
+
     @Bean
     public InternalResourceViewResolver resolver() {
         InternalResourceViewResolver resolver = new InternalResourceViewResolver();
@@ -28,6 +42,11 @@ public class WebMvcConfig implements WebMvcConfigurer{
         return resolver;
     }
 
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        databaseConcurrencyLimiter.ifAvailable(registry::addInterceptor);
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry
@@ -0,0 +1,32 @@
+package org.example.controller;
+
+import org.example.response.ChangeFeedPage;
+import org.example.service.ChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/changes")
+public class ChangeController {
+
+    private static final int MAX_WAIT_SECONDS = 60;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    // READ: Change events after a cursor, e.g. /changes?since=1200&limit=100&wait=30: start at since=0 and pass
+    // nextCursor back. With nothing new the request is held up to wait seconds (default 30, at most 60, 0 for no
+    // wait) and then answered with no events and the same cursor.
+    @GetMapping
+    public DeferredResult<ChangeFeedPage> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(defaultValue = "30") int wait) {
+        return changeFeed.poll(since, limit, Duration.ofSeconds(Math.max(0, Math.min(wait, MAX_WAIT_SECONDS))));
+    }
+}
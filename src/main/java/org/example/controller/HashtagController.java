@@ -0,0 +1,55 @@
+package org.example.controller;
+
+import org.example.response.CursorPage;
+import org.example.response.PostSummary;
+import org.example.response.TrendingHashtag;
+import org.example.service.HashtagTrendingService;
+import org.example.service.PostService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+
+@RestController
+@RequestMapping("/hashtags")
+public class HashtagController {
+
+    @Autowired
+    private HashtagTrendingService hashtagTrendingService;
+
+    @Autowired
+    private PostService postService;
+
+    // Same as PostController's list pages
+    @Value("${app.http.list-max-age:PT5S}")
+    private Duration listMaxAge;
+
+    // READ: Most used hashtags of the last minutes, e.g. /hashtags/trending?minutes=15&limit=10 (served from memory)
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingHashtag>> getTrending(@RequestParam(required = false) Integer minutes,
+                                                             @RequestParam(required = false) Integer limit) {
+        List<TrendingHashtag> trending = hashtagTrendingService.getTrending(minutes, limit);
+        return ResponseEntity.ok().cacheControl(listCacheControl()).body(trending);
+    }
+
+    // READ: Posts carrying a hashtag, newest first, e.g. /hashtags/%23java/posts?after=120&limit=50 ('#' encoded as %23)
+    @GetMapping("/{name}/posts")
+    public ResponseEntity<CursorPage<PostSummary>> getPostsByHashtag(@PathVariable String name,
+                                                                     @RequestParam(required = false) Long after,
+                                                                     @RequestParam(required = false) Integer limit) {
+        CursorPage<PostSummary> page = postService.getPostSummariesByHashtag(name, after, limit);
+        return ResponseEntity.ok().cacheControl(listCacheControl()).body(page);
+    }
+
+    private CacheControl listCacheControl() {
+        return CacheControl.maxAge(listMaxAge);
+    }
+}
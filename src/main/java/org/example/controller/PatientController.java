@@ -0,0 +1,58 @@
+package org.example.controller;
+
+import org.example.entity.Patient;
+import org.example.response.CursorPage;
+import org.example.response.PatientView;
+import org.example.service.PatientService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/patients")
+public class PatientController {
+
+    @Autowired
+    private PatientService patientService;
+
+    @PostMapping
+    public ResponseEntity<Patient> createPatient(@RequestBody Patient patient) {
+        Patient created = patientService.createPatient(patient);
+        return new ResponseEntity<>(created, HttpStatus.OK);
+    }
+
+    // READ: Patients one page at a time, e.g. /patients?after=120&limit=50
+    @GetMapping
+    public ResponseEntity<CursorPage<PatientView>> getPatients(@RequestParam(required = false) Long after,
+                                                               @RequestParam(required = false) Integer limit) {
+        CursorPage<PatientView> page = patientService.getPatients(after, limit);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PatientView> getPatient(@PathVariable Long id) {
+        PatientView patient = patientService.getPatient(id);
+        if (patient != null) {
+            return new ResponseEntity<>(patient, HttpStatus.OK);
+        } else {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // READ: Patients registered with an email address, e.g. /patients/by-email?email=jane@example.com
+    @GetMapping("/by-email")
+    public ResponseEntity<List<PatientView>> getPatientsByEmail(@RequestParam String email) {
+        List<PatientView> patients = patientService.getPatientsByEmail(email);
+        return new ResponseEntity<>(patients, HttpStatus.OK);
+    }
+
+    // READ: Several patients in one call, in the order asked for, e.g. /patients/batch?ids=3,1,7 (at most 100 ids)
+    @GetMapping("/batch")
+    public ResponseEntity<List<PatientView>> getPatientsByIds(@RequestParam List<Long> ids) {
+        List<PatientView> patients = patientService.getPatientsByIds(ids);
+        return new ResponseEntity<>(patients, HttpStatus.OK);
+    }
+}
@@ -1,15 +1,39 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.entity.Comment;
 import org.example.entity.Hashtag;
 import org.example.entity.Post;
+import org.example.exception.TooManyRequestsException;
+import org.example.request.PostPatch;
 import org.example.request.PostRequest;
+import org.example.response.BulkIngestResult;
+import org.example.response.CommentView;
+import org.example.response.CursorPage;
+import org.example.response.PostDetail;
+import org.example.response.PostSearchHit;
+import org.example.response.PostSummary;
+import org.example.response.PostVersion;
+import org.example.service.CommentWriteBehindQueue;
+import org.example.service.PostIngestService;
+import org.example.service.PostSearchService;
 import org.example.service.PostService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,9 +42,29 @@ import java.util.Map;
 @RequestMapping("/posts")
 public class PostController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final int STREAM_FLUSH_INTERVAL = 100; // rows written between flushes of the streamed response
+
     @Autowired
     private PostService postService;
 
+    @Autowired
+    private PostIngestService postIngestService;
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private CommentWriteBehindQueue commentWriteBehindQueue;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // How long clients and shared caches may reuse a list page without asking again
+    @Value("${app.http.list-max-age:PT5S}")
+    private Duration listMaxAge;
+
     @GetMapping("/hello")
     public String hello() {
         return "Hello, World 12345!";
@@ -34,27 +78,119 @@ public class PostController {
         return response;
     }
     
+    // Bulk import: a JSON array or newline-delimited JSON of PostRequest, read incrementally from the request body.
+    // The response lists every chunk with its outcome; chunks commit independently.
+    @PostMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<BulkIngestResult> bulkCreatePosts(InputStream body) throws IOException {
+        BulkIngestResult result = postIngestService.ingest(body);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
     //If you just return the POJO (Post), Spring will automatically return a 200 OK response with the object in the body, 
     // but we won’t have control over the status or headers unless you use ResponseEntity
     
     //response entity vs POJO return
 
-    // READ: Get a Post by ID
+    // READ: Get a Post by ID (read model, see PostService.getPostDetail), with a strong ETag and Last-Modified.
+    // A conditional GET (If-None-Match / If-Modified-Since) first reads only the validators (PostService.getPostVersion):
+    // if the client's copy is current the answer is 304, without loading the post, its comments or its hashtags.
     @GetMapping("/{id}")
-    public ResponseEntity<Post> getPostById(@PathVariable Long id) {
-        Post post = postService.getPostById(id);
+    public ResponseEntity<PostDetail> getPostById(@PathVariable Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            PostVersion current = postService.getPostVersion(id);
+            if (current == null) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            if (request.checkNotModified(current.getETag(), current.getLastModified())) {
+                return null; // 304, status and headers already set
+            }
+        }
+        PostDetail post = postService.getPostDetail(id);
         if(post != null) {
-            return new ResponseEntity<>(post,HttpStatus.OK);
+            // Validators of the body actually sent, which may be newer than the ones checked above
+            PostVersion version = PostVersion.of(post);
+            return ResponseEntity.ok()
+                    .eTag(version.getETag())
+                    .lastModified(version.getLastModified())
+                    .cacheControl(CacheControl.noCache()) // may be stored, but revalidated on every use
+                    .body(post);
+        } else {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // READ: A post's comments, oldest first, one page at a time, e.g. /posts/7/comments?after=5120&limit=100
+    @GetMapping("/{id}/comments")
+    public ResponseEntity<CursorPage<CommentView>> getComments(@PathVariable Long id,
+                                                               @RequestParam(required = false) Long after,
+                                                               @RequestParam(required = false) Integer limit) {
+        CursorPage<CommentView> page = postService.getComments(id, after, limit);
+        if (page != null) {
+            return ResponseEntity.ok().cacheControl(listCacheControl()).body(page);
+        } else {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // Append a JSON array of comments to a post; returns them with their ids.
+    // In write-behind mode (see CommentWriteBehindQueue) they are only queued: 202 without a body, or 429 when the queue is full.
+    @PostMapping("/{id}/comments")
+    public ResponseEntity<List<CommentView>> appendComments(@PathVariable Long id, @RequestBody List<Comment> comments) {
+        if (commentWriteBehindQueue.isEnabled()) {
+            if (!commentWriteBehindQueue.enqueue(id, comments)) {
+                throw new TooManyRequestsException("Too many comments waiting to be written, retry later");
+            }
+            return new ResponseEntity<>(HttpStatus.ACCEPTED);
+        }
+        List<CommentView> saved = postService.appendComments(id, comments);
+        if (saved != null) {
+            return new ResponseEntity<>(saved, HttpStatus.OK);
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
 
-    // READ: Get all Posts
+    // READ: Get Posts one page at a time, e.g. /posts?after=120&limit=50
     @GetMapping
-    public ResponseEntity<List<Post>> getAllPosts() {
-        List<Post> posts = postService.getAllPosts();
-        return new ResponseEntity<>(posts,HttpStatus.OK);
+    public ResponseEntity<CursorPage<PostDetail>> getAllPosts(@RequestParam(required = false) Long after,
+                                                              @RequestParam(required = false) Integer limit) {
+        CursorPage<PostDetail> page = postService.getPostDetails(after, limit);
+        return ResponseEntity.ok().cacheControl(listCacheControl()).body(page);
+    }
+
+    // READ: Lightweight listing (id, version, title, comment count), same cursor parameters as above
+    @GetMapping("/summary")
+    public ResponseEntity<CursorPage<PostSummary>> getPostSummaries(@RequestParam(required = false) Long after,
+                                                                    @RequestParam(required = false) Integer limit) {
+        CursorPage<PostSummary> page = postService.getPostSummaries(after, limit);
+        return ResponseEntity.ok().cacheControl(listCacheControl()).body(page);
+    }
+
+    // READ: Full-text search, best match first, e.g. /posts/search?q=spring+boot&tag=%23java&tag=%23jpa&limit=20
+    // Every tag given must be on the post; with tags only, the newest posts carrying them are returned.
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<PostSearchHit>> searchPosts(@RequestParam(required = false) String q,
+                                                                 @RequestParam(name = "tag", required = false) List<String> tags,
+                                                                 @RequestParam(required = false) Long after,
+                                                                 @RequestParam(required = false) Integer limit) {
+        CursorPage<PostSearchHit> page = postSearchService.search(q, tags, after, limit);
+        return ResponseEntity.ok().cacheControl(listCacheControl()).body(page);
+    }
+
+    // READ: Stream every Post as newline-delimited JSON, one row at a time
+    @GetMapping(value = "/stream", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPosts() {
+        StreamingResponseBody body = outputStream -> {
+            int[] written = {0};
+            postService.streamAllPosts(post -> {
+                writeLine(outputStream, post);
+                if (++written[0] % STREAM_FLUSH_INTERVAL == 0) {
+                    flush(outputStream);
+                }
+            });
+            outputStream.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
     }
     
     @PutMapping("/update/{id}")
@@ -68,6 +204,17 @@ public class PostController {
         }
     }
     
+    // Partial update, see PostPatch: 204 with the new ETag and Last-Modified (GET the post for its body), 404 or 409
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchPost(@PathVariable Long id, @RequestBody PostPatch patch) {
+        PostVersion version = postService.patchPost(id, patch);
+        if (version != null) {
+            return ResponseEntity.noContent().eTag(version.getETag()).lastModified(version.getLastModified()).build();
+        } else {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<Map<String,String>> deletePost(@PathVariable Long id) {
         boolean deleted = postService.deletePost(id);
@@ -80,4 +227,36 @@ public class PostController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
     }
+
+    // DELETE: Moderation sweep, /posts/delete?ids=3,1,7 (at most 500): deletes the posts that exist in one transaction
+    // and lists which ids were deleted and which had no post
+    @DeleteMapping("/delete")
+    public ResponseEntity<Map<String, List<Long>>> deletePosts(@RequestParam List<Long> ids) {
+        List<Long> deleted = postService.deletePosts(ids.stream().distinct().toList());
+        Map<String, List<Long>> response = new HashMap<>();
+        response.put("deleted", deleted);
+        response.put("notFound", ids.stream().distinct().filter(id -> !deleted.contains(id)).toList());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    private CacheControl listCacheControl() {
+        return CacheControl.maxAge(listMaxAge);
+    }
+
+    private void writeLine(OutputStream outputStream, Object value) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(value));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush(OutputStream outputStream) {
+        try {
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
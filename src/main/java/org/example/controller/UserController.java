@@ -0,0 +1,56 @@
+package org.example.controller;
+
+import org.example.entity.User;
+import org.example.exception.InvalidRequestException;
+import org.example.response.UserProfile;
+import org.example.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/users")
+public class UserController {
+
+    @Autowired
+    private UserService userService;
+
+    @PostMapping
+    public ResponseEntity<User> createUser(@RequestBody User user) {
+        User created = userService.createUser(user);
+        return new ResponseEntity<>(created, HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<UserProfile> getProfile(@PathVariable Long id) {
+        return profileOrNotFound(userService.getProfile(id));
+    }
+
+    @GetMapping("/by-username/{username}")
+    public ResponseEntity<UserProfile> getProfileByUsername(@PathVariable String username) {
+        return profileOrNotFound(userService.getProfileByUsername(username));
+    }
+
+    // READ: Profiles for a feed in one call, in the order asked for: /users/batch?ids=3,1,7 or
+    // /users/batch?usernames=alice,bob (one of the two, at most 100)
+    @GetMapping("/batch")
+    public ResponseEntity<List<UserProfile>> getProfiles(@RequestParam(required = false) List<Long> ids,
+                                                         @RequestParam(required = false) List<String> usernames) {
+        if ((ids == null) == (usernames == null)) {
+            throw new InvalidRequestException("Batch lookup needs either ids or usernames");
+        }
+        List<UserProfile> profiles = ids != null ? userService.getProfilesByIds(ids) : userService.getProfilesByUsernames(usernames);
+        return new ResponseEntity<>(profiles, HttpStatus.OK);
+    }
+
+    private static ResponseEntity<UserProfile> profileOrNotFound(UserProfile profile) {
+        if (profile != null) {
+            return new ResponseEntity<>(profile, HttpStatus.OK);
+        } else {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+}
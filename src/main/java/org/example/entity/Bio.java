@@ -5,11 +5,12 @@ import jakarta.persistence.*;
 @Entity
 public class Bio {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bio_seq")
+    @SequenceGenerator(name = "bio_seq", sequenceName = "bio_seq", allocationSize = 50)
     private Long id;
     private String bioData;
-    @OneToOne(mappedBy = "bio")
-    private User user;
+    // No inverse mapping to User: the inverse side of a one-to-one can't be proxied, so every bio loaded would
+    // also have selected its user
 
     public Long getId() {
         return id;
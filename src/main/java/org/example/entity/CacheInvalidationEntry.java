@@ -0,0 +1,83 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// One key of a cache invalidation sent over the database (JdbcCacheInvalidationTransport): the other nodes poll the
+// table for rows they didn't write. Rows are only kept for a few minutes.
+// Written and read over JDBC only (CacheInvalidationEntryRepositoryCustomImpl); the entity is only here so the table is
+// managed with the rest of the schema.
+@Entity
+@Table(name = "cache_invalidation", indexes = @Index(name = "idx_cache_invalidation_created_at", columnList = "created_at"))
+public class CacheInvalidationEntry {
+
+    // POST: a post id; HASHTAG: a normalized tag name; COMMENTS: every cached comment (the key is unused)
+    public enum Kind { POST, HASHTAG, COMMENTS }
+
+    @Id
+    @SequenceGenerator(name = "cache_invalidation_seq", sequenceName = "cache_invalidation_seq", allocationSize = 50)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cache_invalidation_seq")
+    private Long id;
+
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Kind kind;
+
+    @Column(name = "cache_key", nullable = false)
+    private String key;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public CacheInvalidationEntry() {}
+
+    public CacheInvalidationEntry(String nodeId, Kind kind, String key) {
+        this.nodeId = nodeId;
+        this.kind = kind;
+        this.key = key;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public void setKind(Kind kind) {
+        this.kind = kind;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// One row of the transactional outbox: a committed write to a post, a comment or a post's hashtags, inserted in the
+// same transaction as the write itself (ChangeEventOutbox), so an event exists if and only if the write committed.
+// Events carry ids, not state: consumers read what they need. position is null until ChangeEventRelay publishes the
+// event; it then orders the feed (GET /changes), where ids can't: a lower id may commit after a higher one.
+// Written and read over JDBC only (ChangeEventRepositoryCustomImpl); the entity is only here so the table is managed
+// with the rest of the schema.
+@Entity
+@Table(name = "change_event", indexes = {
+        @Index(name = "idx_change_event_position", columnList = "feed_position, id"), // the unpublished (null) rows by id, and the feed in order
+        @Index(name = "idx_change_event_published_at", columnList = "published_at")
+})
+public class ChangeEvent {
+
+    public enum EntityType { POST, COMMENT, HASHTAG }
+
+    // CREATED, UPDATED and DELETED for posts and comments; ADDED to and REMOVED from postId for hashtags
+    public enum Action { CREATED, UPDATED, DELETED, ADDED, REMOVED }
+
+    @Id
+    @SequenceGenerator(name = "change_event_seq", sequenceName = "change_event_seq", allocationSize = 50)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_event_seq")
+    private Long id;
+
+    @Column(name = "feed_position")
+    private Long position;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "post_id")
+    private Long postId; // the post a comment or hashtag event belongs to; the post itself for post events
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Action action;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Column(name = "published_at")
+    private Instant publishedAt;
+
+    public ChangeEvent() {}
+
+    public ChangeEvent(EntityType entityType, Long entityId, Long postId, Action action) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.postId = postId;
+        this.action = action;
+    }
+
+    public static ChangeEvent post(Long postId, Action action) {
+        return new ChangeEvent(EntityType.POST, postId, postId, action);
+    }
+
+    public static ChangeEvent comment(Long commentId, Long postId, Action action) {
+        return new ChangeEvent(EntityType.COMMENT, commentId, postId, action);
+    }
+
+    public static ChangeEvent hashtag(Long hashtagId, Long postId, Action action) {
+        return new ChangeEvent(EntityType.HASHTAG, hashtagId, postId, action);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(EntityType entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public void setPostId(Long postId) {
+        this.postId = postId;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public void setAction(Action action) {
+        this.action = action;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    public Instant getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(Instant publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+}
@@ -1,15 +1,26 @@
 package org.example.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.example.config.CacheConfig;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.HASHTAG_REGION)
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_hashtag_name", columnNames = "name")) // one row per tag, shared by all posts
+@BatchSize(size = 50) // posts link tags by reference (see HashtagService), so the proxies are initialized in batches
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"}) // proxy internals, not part of the JSON
 public class Hashtag {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hashtag_seq")
+    @SequenceGenerator(name = "hashtag_seq", sequenceName = "hashtag_seq", allocationSize = 50)
     private Long id;
     
     private String name;
@@ -0,0 +1,84 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// How often a hashtag was used in posts during one minute (bucketMinute = epoch minute). Written in batches by
+// HashtagTrendingService, never through the persistence context; the entity is only here so the table is managed
+// with the rest of the schema.
+@Entity
+@Table(name = "hashtag_trend", indexes = @Index(name = "idx_hashtag_trend_minute", columnList = "bucket_minute"))
+public class HashtagTrend {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private long uses;
+
+    public Key getId() {
+        return id;
+    }
+
+    public void setId(Key id) {
+        this.id = id;
+    }
+
+    public long getUses() {
+        return uses;
+    }
+
+    public void setUses(long uses) {
+        this.uses = uses;
+    }
+
+    @Embeddable
+    public static class Key implements Serializable, Comparable<Key> {
+
+        @Column(name = "hashtag_id", nullable = false)
+        private Long hashtagId;
+
+        @Column(name = "bucket_minute", nullable = false)
+        private Long bucketMinute;
+
+        public Key() {}
+
+        public Key(Long hashtagId, Long bucketMinute) {
+            this.hashtagId = hashtagId;
+            this.bucketMinute = bucketMinute;
+        }
+
+        public Long getHashtagId() {
+            return hashtagId;
+        }
+
+        public Long getBucketMinute() {
+            return bucketMinute;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byHashtag = hashtagId.compareTo(other.hashtagId);
+            return byHashtag != 0 ? byHashtag : bucketMinute.compareTo(other.bucketMinute);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(hashtagId, key.hashtagId) && Objects.equals(bucketMinute, key.bucketMinute);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hashtagId, bucketMinute);
+        }
+    }
+}
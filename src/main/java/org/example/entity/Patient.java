@@ -4,16 +4,19 @@ package org.example.entity;
 import jakarta.persistence.*;
 
 @Entity
+@Table(indexes = @Index(name = "idx_patient_email", columnList = "email")) // lookup by email
 public class Patient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_seq")
+    @SequenceGenerator(name = "patient_seq", sequenceName = "patient_seq", allocationSize = 50)
     private Long id;
 
     private String firstName;
     private String lastName;
     private String email;
-    @OneToOne(cascade = CascadeType.ALL)
+    // Lazy, so queries that don't join it don't load it one row at a time; the reads in PatientRepository join it
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private MedicalRecord medicalRecord;
     
     public Patient() {
@@ -2,25 +2,66 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.example.config.CacheConfig;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.POST_REGION)
+@DynamicUpdate // UPDATEs set only the columns that changed (plus version and updated_at), not the whole row
 public class Post {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence ids (pooled optimizer, 50 ids per round trip) instead of IDENTITY: with IDENTITY Hibernate has to
+    // run each INSERT immediately to learn the id, which disables JDBC insert batching.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "post_seq")
+    @SequenceGenerator(name = "post_seq", sequenceName = "post_seq", allocationSize = 50)
     private Long id;
     
+    // Optimistic locking: every UPDATE/DELETE checks and bumps it, so a concurrent change makes the commit fail
+    // instead of being silently overwritten. The default fills in rows that existed before the column was added.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @NotNull
     private String title;
     private String content;
 
+    // Denormalized size of comments, so views never count or load them. Set on insert and only ever changed by
+    // CommentRepository.addToCommentCount (in SQL, so concurrent appends don't lose increments): never written by an
+    // entity update, which could carry a stale value. Null until counted for rows written before the column existed.
+    @Column(name = "comment_count", updatable = false)
+    private Integer commentCount;
+
+    // Last write to the post or its comments: set by Hibernate on insert and on every update that bumps the version,
+    // and by CommentRepository.addToCommentCount. Served as Last-Modified; null for rows older than the column.
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    // @BatchSize is the fallback for code paths that touch the collections lazily; the read paths in
+    // PostService load them up front through the entity graphs on PostRepository.
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.POST_COMMENTS_REGION)
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "post")
     private List<Comment> comments = new ArrayList<>();
     
-    @ManyToMany(cascade = CascadeType.ALL)
-    @JoinTable(name = "post_hashtag", joinColumns = @JoinColumn(name = "post_id"), inverseJoinColumns = @JoinColumn(name = "hashtag_id"))
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.POST_HASHTAGS_REGION)
+    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE}) // no REMOVE: hashtag rows are shared with other posts
+    // Indexed tag-first, for finding the posts that carry a hashtag newest first (search filters)
+    @JoinTable(name = "post_hashtag", joinColumns = @JoinColumn(name = "post_id"), inverseJoinColumns = @JoinColumn(name = "hashtag_id"),
+            indexes = @Index(name = "idx_post_hashtag_hashtag_post", columnList = "hashtag_id, post_id"))
     private List<Hashtag> hashtags = new ArrayList<>();
 
     public Long getId() {
@@ -31,6 +72,14 @@ public class Post {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -47,6 +96,22 @@ public class Post {
         this.content = content;
     }
 
+    public Integer getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(Integer commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     public List<Comment> getComments() {
         return comments;
     }
@@ -3,16 +3,18 @@ package org.example.entity;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "app_user")
+@Table(name = "app_user", indexes = @Index(name = "idx_app_user_username", columnList = "username")) // lookup by username
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_user_seq")
+    @SequenceGenerator(name = "app_user_seq", sequenceName = "app_user_seq", allocationSize = 50)
     private Long id;
     private String username;
     
-    @OneToOne(cascade = CascadeType.ALL)
+    // Lazy, so loading a user doesn't select its bio and picture one by one; profile reads join them (UserRepository)
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Bio bio;
-    @OneToOne(cascade = CascadeType.ALL)
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "profile_picture_id")
     private ProfilePicture profilePicture;
 
@@ -0,0 +1,14 @@
+package org.example.exception;
+
+// The row was changed by someone else: the caller sent a stale version, or concurrent writers kept winning
+// until the retries ran out. Reported as 409 Conflict.
+public class ConflictException extends CustomServiceException {
+
+    public ConflictException(String message) {
+        super(message, "CONFLICT", null);
+    }
+
+    public ConflictException(String message, Throwable cause) {
+        super(message, "CONFLICT", cause);
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.exception;
+
+// The request itself is unusable (missing or contradictory parameters). Reported as 400 Bad Request.
+public class InvalidRequestException extends CustomServiceException {
+
+    public InvalidRequestException(String message) {
+        super(message, "INVALID_REQUEST", null);
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.exception;
+
+// The server is at capacity for this kind of request and sheds it instead of queueing it. Reported as
+// 429 Too Many Requests with a Retry-After header.
+public class TooManyRequestsException extends CustomServiceException {
+
+    public TooManyRequestsException(String message) {
+        super(message, "TOO_MANY_REQUESTS", null);
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.repository;
+
+import org.example.entity.CacheInvalidationEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CacheInvalidationEntryRepository extends JpaRepository<CacheInvalidationEntry, Long>, CacheInvalidationEntryRepositoryCustom {
+}
@@ -0,0 +1,20 @@
+package org.example.repository;
+
+import org.example.entity.CacheInvalidationEntry;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface CacheInvalidationEntryRepositoryCustom {
+
+    // The database's clock, which every createdAt comes from, so the nodes' clocks don't need to agree
+    Instant currentTime();
+
+    // Inserts the entries as one batch, stamped with the database's current time
+    void append(List<CacheInvalidationEntry> entries);
+
+    // Entries created at or after the instant by any node but nodeId, in id order
+    List<CacheInvalidationEntry> findFromOtherNodes(String nodeId, Instant from);
+
+    int deleteCreatedBefore(Instant instant);
+}
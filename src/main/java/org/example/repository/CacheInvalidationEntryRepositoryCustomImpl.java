@@ -0,0 +1,66 @@
+package org.example.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.entity.CacheInvalidationEntry;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+// Plain JDBC, like ChangeEventRepositoryCustomImpl: entries are written as one batch per invalidation and polled in bulk
+@RequiredArgsConstructor
+public class CacheInvalidationEntryRepositoryCustomImpl implements CacheInvalidationEntryRepositoryCustom {
+
+    private static final String CURRENT_TIME_SQL = "select current_timestamp";
+
+    private static final String INSERT_SQL = "insert into cache_invalidation (id, node_id, kind, cache_key, created_at)"
+            + " values (nextval('cache_invalidation_seq'), ?, ?, ?, current_timestamp)";
+
+    private static final String SELECT_FROM_OTHER_NODES_SQL = "select id, node_id, kind, cache_key, created_at"
+            + " from cache_invalidation where created_at >= :from and node_id <> :nodeId order by id";
+
+    private static final String DELETE_CREATED_BEFORE_SQL = "delete from cache_invalidation where created_at < :instant";
+
+    private static final RowMapper<CacheInvalidationEntry> ENTRY_MAPPER = (rs, rowNum) -> {
+        CacheInvalidationEntry entry = new CacheInvalidationEntry(rs.getString("node_id"),
+                CacheInvalidationEntry.Kind.valueOf(rs.getString("kind")), rs.getString("cache_key"));
+        entry.setId(rs.getLong("id"));
+        entry.setCreatedAt(rs.getTimestamp("created_at").toInstant());
+        return entry;
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Instant currentTime() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(CURRENT_TIME_SQL, Timestamp.class).toInstant();
+    }
+
+    @Override
+    public void append(List<CacheInvalidationEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setString(1, entry.getNodeId());
+            ps.setString(2, entry.getKind().name());
+            ps.setString(3, entry.getKey());
+        });
+    }
+
+    @Override
+    public List<CacheInvalidationEntry> findFromOtherNodes(String nodeId, Instant from) {
+        return jdbcTemplate.query(SELECT_FROM_OTHER_NODES_SQL, new MapSqlParameterSource()
+                .addValue("from", Timestamp.from(from))
+                .addValue("nodeId", nodeId), ENTRY_MAPPER);
+    }
+
+    @Override
+    public int deleteCreatedBefore(Instant instant) {
+        return jdbcTemplate.update(DELETE_CREATED_BEFORE_SQL, Map.of("instant", Timestamp.from(instant)));
+    }
+}
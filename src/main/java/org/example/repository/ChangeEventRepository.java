@@ -0,0 +1,7 @@
+package org.example.repository;
+
+import org.example.entity.ChangeEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long>, ChangeEventRepositoryCustom {
+}
@@ -0,0 +1,28 @@
+package org.example.repository;
+
+import org.example.entity.ChangeEvent;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ChangeEventRepositoryCustom {
+
+    // Inserts the events as one batch, in the caller's transaction
+    void append(List<ChangeEvent> events);
+
+    // The oldest unpublished events, at most limit of them, locked until commit: a relay on another node waits for
+    // them and then skips them, since they are published by then
+    List<ChangeEvent> lockUnpublished(int limit);
+
+    // The highest position handed out so far, 0 if none
+    long findLastPosition();
+
+    // Marks the events published: each one's position and publishedAt must be set
+    void markPublished(List<ChangeEvent> events);
+
+    // Published events after the position, in feed order, at most limit of them
+    List<ChangeEvent> findAfter(long position, int limit);
+
+    // Deletes events published before the instant, except the last one, whose position the next relay run continues from
+    int deletePublishedBefore(Instant instant);
+}
@@ -0,0 +1,99 @@
+package org.example.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.entity.ChangeEvent;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+// Plain JDBC, like HashtagRepositoryCustomImpl: the events of a write go out as one batch in its transaction without
+// passing through the persistence context, and the relay moves them in batches as well.
+@RequiredArgsConstructor
+public class ChangeEventRepositoryCustomImpl implements ChangeEventRepositoryCustom {
+
+    private static final String COLUMNS = "id, feed_position, entity_type, entity_id, post_id, action, occurred_at, published_at";
+
+    private static final String INSERT_SQL = "insert into change_event (id, entity_type, entity_id, post_id, action, occurred_at)"
+            + " values (nextval('change_event_seq'), ?, ?, ?, ?, ?)";
+
+    private static final String LOCK_UNPUBLISHED_SQL = "select " + COLUMNS + " from change_event"
+            + " where feed_position is null order by id limit :limit for update";
+
+    private static final String LAST_POSITION_SQL = "select coalesce(max(feed_position), 0) from change_event";
+
+    private static final String MARK_PUBLISHED_SQL = "update change_event set feed_position = ?, published_at = ? where id = ?";
+
+    private static final String SELECT_AFTER_SQL = "select " + COLUMNS + " from change_event"
+            + " where feed_position > :position order by feed_position limit :limit";
+
+    private static final String DELETE_PUBLISHED_BEFORE_SQL = "delete from change_event where published_at < :instant"
+            + " and feed_position < (select max(feed_position) from change_event)";
+
+    private static final RowMapper<ChangeEvent> EVENT_MAPPER = (rs, rowNum) -> {
+        ChangeEvent event = new ChangeEvent(ChangeEvent.EntityType.valueOf(rs.getString("entity_type")),
+                rs.getLong("entity_id"), rs.getObject("post_id", Long.class), ChangeEvent.Action.valueOf(rs.getString("action")));
+        event.setId(rs.getLong("id"));
+        event.setPosition(rs.getObject("feed_position", Long.class));
+        event.setOccurredAt(rs.getTimestamp("occurred_at").toInstant());
+        Timestamp publishedAt = rs.getTimestamp("published_at");
+        event.setPublishedAt(publishedAt == null ? null : publishedAt.toInstant());
+        return event;
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void append(List<ChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.getEntityType().name());
+            ps.setLong(2, event.getEntityId());
+            if (event.getPostId() == null) {
+                ps.setNull(3, Types.BIGINT);
+            } else {
+                ps.setLong(3, event.getPostId());
+            }
+            ps.setString(4, event.getAction().name());
+            ps.setTimestamp(5, Timestamp.from(event.getOccurredAt()));
+        });
+    }
+
+    @Override
+    public List<ChangeEvent> lockUnpublished(int limit) {
+        return jdbcTemplate.query(LOCK_UNPUBLISHED_SQL, Map.of("limit", limit), EVENT_MAPPER);
+    }
+
+    @Override
+    public long findLastPosition() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(LAST_POSITION_SQL, Long.class);
+    }
+
+    @Override
+    public void markPublished(List<ChangeEvent> events) {
+        jdbcTemplate.getJdbcTemplate().batchUpdate(MARK_PUBLISHED_SQL, events, events.size(), (ps, event) -> {
+            ps.setLong(1, event.getPosition());
+            ps.setTimestamp(2, Timestamp.from(event.getPublishedAt()));
+            ps.setLong(3, event.getId());
+        });
+    }
+
+    @Override
+    public List<ChangeEvent> findAfter(long position, int limit) {
+        return jdbcTemplate.query(SELECT_AFTER_SQL, new MapSqlParameterSource()
+                .addValue("position", position)
+                .addValue("limit", limit), EVENT_MAPPER);
+    }
+
+    @Override
+    public int deletePublishedBefore(Instant instant) {
+        return jdbcTemplate.update(DELETE_PUBLISHED_BEFORE_SQL, Map.of("instant", Timestamp.from(instant)));
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.repository;
+
+public interface CommentRepositoryCustom {
+
+    // Adds delta to the post's comment_count and moves its updated_at to now; returns 0 if there is no such post.
+    // Locks the post row until commit.
+    int addToCommentCount(long postId, int delta);
+
+    // Counts the comments of up to limit posts whose comment_count is still null; returns how many it set
+    int backfillCommentCounts(int limit);
+}
@@ -0,0 +1,47 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+// Plain JDBC, so the counter update is a single atomic statement that neither loads the post nor goes through
+// Hibernate; callers evict the post from the second-level cache (PostCacheEvictor), which doesn't see it, and the
+// post table is invalidated in the query cache here (QuerySpaces).
+public class CommentRepositoryCustomImpl implements CommentRepositoryCustom {
+
+    // A null count (not counted yet) stays null: readers count the comments instead until CommentCountBackfill has run
+    private static final String ADD_TO_COUNT_SQL = "update post set comment_count = comment_count + :delta,"
+            + " updated_at = :updatedAt where id = :postId";
+
+    // Rows from before the column existed, a bounded batch at a time so no statement locks the whole table
+    private static final String BACKFILL_SQL = "update post set comment_count ="
+            + " (select count(*) from comment c where c.post_id = post.id)"
+            + " where id in (select id from post where comment_count is null order by id limit :limit)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CommentRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int addToCommentCount(long postId, int delta) {
+        QuerySpaces.invalidate(entityManager, "post");
+        return jdbcTemplate.update(ADD_TO_COUNT_SQL, new MapSqlParameterSource()
+                .addValue("postId", postId)
+                .addValue("delta", delta)
+                .addValue("updatedAt", Timestamp.from(Instant.now())));
+    }
+
+    @Override
+    public int backfillCommentCounts(int limit) {
+        return jdbcTemplate.update(BACKFILL_SQL, new MapSqlParameterSource("limit", limit));
+    }
+}
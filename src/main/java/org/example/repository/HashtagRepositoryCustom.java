@@ -0,0 +1,25 @@
+package org.example.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface HashtagRepositoryCustom {
+
+    // Inserts the names that don't exist yet and returns name -> id for every given name
+    Map<String, Long> upsertByName(Collection<String> names);
+
+    // Ids of the posts tagged name that are below beforeId, highest (newest) first, at most limit of them
+    List<Long> findPostIds(String name, long beforeId, int limit);
+
+    // id -> name of the post's hashtags, read from the join table (no entity or collection is loaded)
+    Map<Long, String> findByPostId(long postId);
+
+    // Distinct names of the hashtags the posts carry, in one statement
+    List<String> findNamesByPostIds(Collection<Long> postIds);
+
+    // Join rows of the post: one batch of inserts, one delete. The post's cached hashtag collection must be evicted.
+    void addToPost(long postId, Collection<Long> hashtagIds);
+
+    void removeFromPost(long postId, Collection<Long> hashtagIds);
+}
@@ -0,0 +1,107 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Plain JDBC on purpose: the inserts go out as a single batch, and running them through the JDBC template keeps
+// them out of the persistence context. Spring's JpaTransactionManager hands JDBC the transaction's connection,
+// so the rows are part of the surrounding transaction. Writes to post_hashtag invalidate it in the query cache
+// (QuerySpaces), as the post views join it.
+@RequiredArgsConstructor
+public class HashtagRepositoryCustomImpl implements HashtagRepositoryCustom {
+
+    // Ids come from the same sequence Hibernate uses. Each nextval() here is the top of a block Hibernate never hands out.
+    // No conflict target: uk_hashtag_name is the only constraint a fresh sequence id can hit (and H2 rejects a target).
+    private static final String UPSERT_SQL =
+            "insert into hashtag (id, name) values (nextval('hashtag_seq'), ?) on conflict do nothing";
+
+    private static final String SELECT_IDS_SQL = "select id, name from hashtag where name in (:names)";
+
+    // A backward range scan of idx_post_hashtag_hashtag_post (hashtag_id, post_id): reads only the rows it returns
+    private static final String SELECT_POST_IDS_SQL = "select ph.post_id from post_hashtag ph"
+            + " where ph.hashtag_id = (select h.id from hashtag h where h.name = :name) and ph.post_id < :beforeId"
+            + " order by ph.post_id desc limit :limit";
+
+    private static final String SELECT_BY_POST_SQL = "select h.id, h.name from post_hashtag ph join hashtag h on h.id = ph.hashtag_id"
+            + " where ph.post_id = :postId";
+
+    private static final String SELECT_NAMES_BY_POSTS_SQL = "select distinct h.name from post_hashtag ph join hashtag h on h.id = ph.hashtag_id"
+            + " where ph.post_id in (:postIds)";
+
+    private static final String INSERT_POST_HASHTAG_SQL = "insert into post_hashtag (post_id, hashtag_id) values (?, ?)";
+
+    private static final String DELETE_POST_HASHTAGS_SQL = "delete from post_hashtag where post_id = :postId and hashtag_id in (:hashtagIds)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Map<String, Long> upsertByName(Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        if (names.isEmpty()) {
+            return ids;
+        }
+        // Sorted so concurrent upserts take the unique-index locks in the same order and can't deadlock
+        List<String> sortedNames = names.stream().distinct().sorted().toList();
+        jdbcTemplate.getJdbcTemplate().batchUpdate(UPSERT_SQL, sortedNames, sortedNames.size(),
+                (ps, name) -> ps.setString(1, name));
+        jdbcTemplate.query(SELECT_IDS_SQL, Map.of("names", sortedNames),
+                rs -> { ids.put(rs.getString("name"), rs.getLong("id")); });
+        return ids;
+    }
+
+    @Override
+    public List<Long> findPostIds(String name, long beforeId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("name", name)
+                .addValue("beforeId", beforeId)
+                .addValue("limit", limit);
+        return jdbcTemplate.queryForList(SELECT_POST_IDS_SQL, params, Long.class);
+    }
+
+    @Override
+    public Map<Long, String> findByPostId(long postId) {
+        Map<Long, String> hashtags = new HashMap<>();
+        jdbcTemplate.query(SELECT_BY_POST_SQL, Map.of("postId", postId),
+                rs -> { hashtags.put(rs.getLong("id"), rs.getString("name")); });
+        return hashtags;
+    }
+
+    @Override
+    public List<String> findNamesByPostIds(Collection<Long> postIds) {
+        return jdbcTemplate.queryForList(SELECT_NAMES_BY_POSTS_SQL, Map.of("postIds", postIds), String.class);
+    }
+
+    @Override
+    public void addToPost(long postId, Collection<Long> hashtagIds) {
+        if (hashtagIds.isEmpty()) {
+            return;
+        }
+        QuerySpaces.invalidate(entityManager, "post_hashtag");
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_POST_HASHTAG_SQL, hashtagIds, hashtagIds.size(), (ps, hashtagId) -> {
+            ps.setLong(1, postId);
+            ps.setLong(2, hashtagId);
+        });
+    }
+
+    @Override
+    public void removeFromPost(long postId, Collection<Long> hashtagIds) {
+        if (hashtagIds.isEmpty()) {
+            return;
+        }
+        QuerySpaces.invalidate(entityManager, "post_hashtag");
+        jdbcTemplate.update(DELETE_POST_HASHTAGS_SQL, new MapSqlParameterSource()
+                .addValue("postId", postId)
+                .addValue("hashtagIds", hashtagIds));
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.repository;
+
+import org.example.entity.HashtagTrend;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface HashtagTrendRepository extends JpaRepository<HashtagTrend, HashtagTrend.Key>, HashtagTrendRepositoryCustom {
+}
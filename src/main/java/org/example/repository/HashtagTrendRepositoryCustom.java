@@ -0,0 +1,16 @@
+package org.example.repository;
+
+import org.example.entity.HashtagTrend;
+
+import java.util.Map;
+
+public interface HashtagTrendRepositoryCustom {
+
+    // Adds the given uses to the per-minute counts, creating the rows that don't exist yet
+    void addUses(Map<HashtagTrend.Key, Long> uses);
+
+    // epoch minute -> hashtag name -> uses, for every minute from fromMinute on
+    Map<Long, Map<String, Long>> findUsesSince(long fromMinute);
+
+    int deleteBefore(long minute);
+}
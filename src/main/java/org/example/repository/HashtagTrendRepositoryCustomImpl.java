@@ -0,0 +1,63 @@
+package org.example.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.entity.HashtagTrend;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Plain JDBC, like HashtagRepositoryCustomImpl: counts are added in place, in two batches per flush.
+@RequiredArgsConstructor
+public class HashtagTrendRepositoryCustomImpl implements HashtagTrendRepositoryCustom {
+
+    // Insert-then-increment instead of ON CONFLICT DO UPDATE, which H2 doesn't support. Two nodes flushing the same
+    // row both add their uses: the insert of one is a no-op and the updates queue up on the row lock.
+    private static final String INSERT_SQL =
+            "insert into hashtag_trend (hashtag_id, bucket_minute, uses) values (?, ?, 0) on conflict do nothing";
+
+    private static final String INCREMENT_SQL =
+            "update hashtag_trend set uses = uses + ? where hashtag_id = ? and bucket_minute = ?";
+
+    private static final String SELECT_SINCE_SQL = "select t.bucket_minute, h.name, t.uses from hashtag_trend t"
+            + " join hashtag h on h.id = t.hashtag_id where t.bucket_minute >= :fromMinute";
+
+    private static final String DELETE_BEFORE_SQL = "delete from hashtag_trend where bucket_minute < :minute";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addUses(Map<HashtagTrend.Key, Long> uses) {
+        if (uses.isEmpty()) {
+            return;
+        }
+        // Sorted so concurrent flushes lock the rows in the same order and can't deadlock
+        List<Map.Entry<HashtagTrend.Key, Long>> sorted = new TreeMap<>(uses).entrySet().stream().toList();
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_SQL, sorted, sorted.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getKey().getHashtagId());
+            ps.setLong(2, entry.getKey().getBucketMinute());
+        });
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INCREMENT_SQL, sorted, sorted.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setLong(2, entry.getKey().getHashtagId());
+            ps.setLong(3, entry.getKey().getBucketMinute());
+        });
+    }
+
+    @Override
+    public Map<Long, Map<String, Long>> findUsesSince(long fromMinute) {
+        Map<Long, Map<String, Long>> uses = new HashMap<>();
+        jdbcTemplate.query(SELECT_SINCE_SQL, Map.of("fromMinute", fromMinute), rs -> {
+            uses.computeIfAbsent(rs.getLong("bucket_minute"), minute -> new HashMap<>())
+                    .put(rs.getString("name"), rs.getLong("uses"));
+        });
+        return uses;
+    }
+
+    @Override
+    public int deleteBefore(long minute) {
+        return jdbcTemplate.update(DELETE_BEFORE_SQL, Map.of("minute", minute));
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.repository;
+
+import org.example.response.PatientView;
+
+import java.util.Collection;
+import java.util.List;
+
+// Read-side projections of patients with their medical record, one statement each
+public interface PatientRepositoryCustom {
+
+    // Keyset page: patients with an id above afterId, in id order
+    List<PatientView> findViewsAfter(long afterId, int limit);
+
+    // In id order; several patients may share an address
+    List<PatientView> findViewsByEmail(String email, int limit);
+
+    // In no particular order; ids without a patient are skipped
+    List<PatientView> findViewsByIds(Collection<Long> ids);
+}
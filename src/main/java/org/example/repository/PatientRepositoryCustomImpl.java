@@ -0,0 +1,50 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.response.PatientView;
+
+import java.util.Collection;
+import java.util.List;
+
+// Constructor expressions over a left join, so a patient and its record come back in one row and neither is
+// hydrated as an entity. Built on the EntityManager for the same reason as PostRepositoryCustomImpl: Spring Data
+// re-parses the JPQL of @Query methods on every call.
+public class PatientRepositoryCustomImpl implements PatientRepositoryCustom {
+
+    private static final String SELECT_VIEW = "select new org.example.response.PatientView(p.id, p.firstName, p.lastName, p.email,"
+            + " m.id, m.diagnosis, m.treatmentPlan) from Patient p left join p.medicalRecord m";
+
+    private static final String VIEWS_AFTER_JPQL = SELECT_VIEW + " where p.id > :afterId order by p.id";
+
+    // Served by idx_patient_email
+    private static final String VIEWS_BY_EMAIL_JPQL = SELECT_VIEW + " where p.email = :email order by p.id";
+
+    private static final String VIEWS_BY_IDS_JPQL = SELECT_VIEW + " where p.id in :ids";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PatientView> findViewsAfter(long afterId, int limit) {
+        return entityManager.createQuery(VIEWS_AFTER_JPQL, PatientView.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<PatientView> findViewsByEmail(String email, int limit) {
+        return entityManager.createQuery(VIEWS_BY_EMAIL_JPQL, PatientView.class)
+                .setParameter("email", email)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<PatientView> findViewsByIds(Collection<Long> ids) {
+        return entityManager.createQuery(VIEWS_BY_IDS_JPQL, PatientView.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+}
@@ -1,7 +1,37 @@
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.entity.Post;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface PostRepository extends JpaRepository<Post, Long> {
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface PostRepository extends JpaRepository<Post, Long>, PostRepositoryCustom {
+
+    // Posts with their collections, one query per collection. Comments and hashtags are both bags, and fetching two
+    // bags in one query is both illegal (MultipleBagFetchException) and a cartesian product, so they are loaded separately.
+    // Run both inside the same transaction: the second query fills in the instances returned by the first.
+    @EntityGraph(attributePaths = "comments")
+    @Query("select p from Post p where p.id in :ids order by p.id")
+    List<Post> findWithCommentsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "hashtags")
+    @Query("select p from Post p where p.id in :ids order by p.id")
+    List<Post> findWithHashtagsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Must be consumed inside a transaction and closed afterwards (try-with-resources).
+    // The fetch size makes the JDBC driver use a server-side cursor instead of buffering the whole result.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Post p order by p.id")
+    Stream<Post> streamAllOrderById();
 }
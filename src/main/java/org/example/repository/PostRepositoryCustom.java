@@ -0,0 +1,43 @@
+package org.example.repository;
+
+import org.example.response.CommentView;
+import org.example.response.HashtagView;
+import org.example.response.PostDetail;
+import org.example.response.PostSummary;
+import org.example.response.PostVersion;
+
+import java.util.Collection;
+import java.util.List;
+
+// Read-side projections, and the set-based delete. Ranges are (afterId, lastId]: a keyset page is exactly such a range,
+// and a single post is (id - 1, id].
+public interface PostRepositoryCustom {
+
+    // Posts in the range, in id order, at most limit of them; comments and hashtags are filled in separately
+    List<PostDetail> findDetailsInRange(long afterId, long lastId, int limit);
+
+    // At most the first perPost comments of each post in the range, in id order
+    List<CommentView> findCommentPreviewsInRange(long afterId, long lastId, int perPost);
+
+    // One page of a post's comments: ids above afterId, in id order
+    List<CommentView> findCommentViewsAfter(long postId, long afterId, int limit);
+
+    // The validators of the post's detail view, or null if there is no such post
+    PostVersion findVersion(long id);
+
+    List<HashtagView> findHashtagViewsInRange(long afterId, long lastId);
+
+    List<PostSummary> findSummariesAfter(long afterId, int limit);
+
+    // Summaries of the given posts, in no particular order; ids without a post are skipped
+    List<PostSummary> findSummariesByIds(Collection<Long> ids);
+
+    // Which of the given posts exist, in id order, locked until commit (one statement). Locked in id order, so two
+    // deletes of overlapping sets can't deadlock; comment appends to a locked post wait for the delete.
+    List<Long> lockExisting(Collection<Long> ids);
+
+    // Deletes the posts with their comments and hashtag links (not the hashtags, which other posts share): one
+    // statement per table, whatever the number of rows. Lock the posts first, or a comment appended in between
+    // makes the last one fail. Nothing goes through Hibernate: callers evict the posts (PostCacheEvictor).
+    int deleteWithChildren(Collection<Long> ids);
+}
@@ -0,0 +1,149 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.example.config.CacheConfig;
+import org.example.response.CommentView;
+import org.example.response.HashtagView;
+import org.example.response.PostDetail;
+import org.example.response.PostSummary;
+import org.example.response.PostVersion;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Constructor expressions select only the columns the views need, so nothing is hydrated as an entity, snapshotted
+// for dirty checking or registered in the persistence context.
+// Built on the EntityManager rather than @Query methods: Spring Data 3.1 re-parses the JPQL of a string query on
+// every call, which cost more than the (query-cached) query itself. Id ranges instead of "in :ids" lists keep the
+// translated SQL cacheable in Hibernate as well, since list parameters force a new translation per execution.
+// Results are query-cached with the id pages; writes to the tables involved invalidate them.
+// The delete is plain JDBC instead: one set-based statement per table, where removing the entity would load every
+// comment and delete them one row at a time. It invalidates the tables in the query cache itself (QuerySpaces).
+public class PostRepositoryCustomImpl implements PostRepositoryCustom {
+
+    // The stored count, or for posts not counted yet (see Post.commentCount) a correlated count of their comments
+    private static final String COMMENT_COUNT = "coalesce(p.commentCount, size(p.comments))";
+
+    private static final String DETAILS_JPQL = "select new org.example.response.PostDetail(p.id, p.version, p.title, p.content, " + COMMENT_COUNT + ", p.updatedAt)"
+            + " from Post p where p.id > :afterId and p.id <= :lastId order by p.id";
+
+    // The first comments of each post, numbered per post in the derived table; idx_comment_post_id serves both the
+    // range and the numbering, so a post with many comments costs no more than one with a few
+    private static final String COMMENT_PREVIEWS_JPQL = "select new org.example.response.CommentView(x.postId, x.id, x.text)"
+            + " from (select c.post.id as postId, c.id as id, c.text as text,"
+            + " row_number() over (partition by c.post.id order by c.id) as position"
+            + " from Comment c where c.post.id > :afterId and c.post.id <= :lastId) x"
+            + " where x.position <= :perPost order by x.id";
+
+    private static final String COMMENT_PAGE_JPQL = "select new org.example.response.CommentView(c.post.id, c.id, c.text)"
+            + " from Comment c where c.post.id = :postId and c.id > :afterId order by c.id";
+
+    private static final String HASHTAG_VIEWS_JPQL = "select new org.example.response.HashtagView(p.id, h.id, h.name)"
+            + " from Post p join p.hashtags h where p.id > :afterId and p.id <= :lastId";
+
+    private static final String VERSION_JPQL = "select new org.example.response.PostVersion(p.version, " + COMMENT_COUNT + ", p.updatedAt)"
+            + " from Post p where p.id = :id";
+
+    private static final String SUMMARIES_JPQL = "select new org.example.response.PostSummary(p.id, p.version, p.title, " + COMMENT_COUNT + ")"
+            + " from Post p where p.id > :afterId order by p.id";
+
+    private static final String SUMMARIES_BY_IDS_JPQL = "select new org.example.response.PostSummary(p.id, p.version, p.title, " + COMMENT_COUNT + ")"
+            + " from Post p where p.id in :ids";
+
+    private static final String LOCK_EXISTING_SQL = "select id from post where id in (:ids) order by id for update";
+
+    private static final String DELETE_POST_HASHTAGS_SQL = "delete from post_hashtag where post_id in (:ids)";
+
+    private static final String DELETE_COMMENTS_SQL = "delete from comment where post_id in (:ids)";
+
+    private static final String DELETE_POSTS_SQL = "delete from post where id in (:ids)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public PostRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<PostDetail> findDetailsInRange(long afterId, long lastId, int limit) {
+        return rangeQuery(DETAILS_JPQL, PostDetail.class, afterId, lastId).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<CommentView> findCommentPreviewsInRange(long afterId, long lastId, int perPost) {
+        return rangeQuery(COMMENT_PREVIEWS_JPQL, CommentView.class, afterId, lastId)
+                .setParameter("perPost", perPost)
+                .getResultList();
+    }
+
+    @Override
+    public List<CommentView> findCommentViewsAfter(long postId, long afterId, int limit) {
+        return cached(entityManager.createQuery(COMMENT_PAGE_JPQL, CommentView.class))
+                .setParameter("postId", postId)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<HashtagView> findHashtagViewsInRange(long afterId, long lastId) {
+        return rangeQuery(HASHTAG_VIEWS_JPQL, HashtagView.class, afterId, lastId).getResultList();
+    }
+
+    @Override
+    public PostVersion findVersion(long id) {
+        List<PostVersion> versions = cached(entityManager.createQuery(VERSION_JPQL, PostVersion.class))
+                .setParameter("id", id)
+                .getResultList();
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    @Override
+    public List<PostSummary> findSummariesAfter(long afterId, int limit) {
+        return cached(entityManager.createQuery(SUMMARIES_JPQL, PostSummary.class))
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // Not query-cached: the id lists are arbitrary (a page of a hashtag's posts), so entries would rarely be reused
+    @Override
+    public List<PostSummary> findSummariesByIds(Collection<Long> ids) {
+        return entityManager.createQuery(SUMMARIES_BY_IDS_JPQL, PostSummary.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    @Override
+    public List<Long> lockExisting(Collection<Long> ids) {
+        return jdbcTemplate.queryForList(LOCK_EXISTING_SQL, Map.of("ids", ids), Long.class);
+    }
+
+    @Override
+    public int deleteWithChildren(Collection<Long> ids) {
+        Map<String, Collection<Long>> params = Map.of("ids", ids);
+        QuerySpaces.invalidate(entityManager, "post_hashtag", "comment", "post");
+        jdbcTemplate.update(DELETE_POST_HASHTAGS_SQL, params);
+        jdbcTemplate.update(DELETE_COMMENTS_SQL, params);
+        return jdbcTemplate.update(DELETE_POSTS_SQL, params);
+    }
+
+    private <T> TypedQuery<T> rangeQuery(String jpql, Class<T> type, long afterId, long lastId) {
+        return cached(entityManager.createQuery(jpql, type))
+                .setParameter("afterId", afterId)
+                .setParameter("lastId", lastId);
+    }
+
+    private static <T> TypedQuery<T> cached(TypedQuery<T> query) {
+        return query.setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, CacheConfig.POST_PAGES_REGION);
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.response.PostSearchHit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// Full-text search over post title and content, backed by PostgreSQL: a stored tsvector column (title weighted A,
+// content B) that the database keeps in sync on every insert and update, and a GIN index over it.
+// Hibernate doesn't map or manage the column; it is added here at startup, once, if missing. On an existing table
+// adding it rewrites the table, so expect the first start after upgrading to take a while on a large one.
+@Repository
+public class PostSearchRepository {
+
+    static final String TEXT_SEARCH_CONFIG = "english"; // changing it needs the column dropped and rebuilt
+
+    private static final String ADD_COLUMN_SQL = "alter table post add column if not exists search_vector tsvector"
+            + " generated always as (setweight(to_tsvector('" + TEXT_SEARCH_CONFIG + "', coalesce(title, '')), 'A')"
+            + " || setweight(to_tsvector('" + TEXT_SEARCH_CONFIG + "', coalesce(content, '')), 'B')) stored";
+
+    private static final String CREATE_INDEX_SQL = "create index if not exists idx_post_search_vector on post using gin (search_vector)";
+
+    // Until the end of the caller's transaction. PgJDBC prepares the statement on the server after a few executions
+    // (AppConfig), and PostgreSQL may then switch to one generic plan for every query, chosen without knowing the words
+    // or tags. Which plan is right depends on how many posts those match: a rare word with a tag went from ~15 ms to
+    // ~300 ms under the plan picked for common words.
+    private static final String CUSTOM_PLAN_SQL = "set local plan_cache_mode = force_custom_plan";
+
+    private static final RowMapper<PostSearchHit> HIT_MAPPER = (rs, rowNum) -> new PostSearchHit(
+            rs.getLong("id"), rs.getLong("version"), rs.getString("title"), rs.getFloat("rank"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory is only a dependency so that Hibernate has created the post table before this runs
+    public PostSearchRepository(NamedParameterJdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void createSearchIndex() {
+        String database = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return; // e.g. H2 in tests and benchmarks: search is unavailable there
+        }
+        jdbcTemplate.getJdbcTemplate().execute(ADD_COLUMN_SQL);
+        jdbcTemplate.getJdbcTemplate().execute(CREATE_INDEX_SQL);
+    }
+
+    // Matches of a web-search style query ("quoted phrases", or, -excluded), best first.
+    // Only the newest maxCandidates matches (highest ids) are ranked: ranking reads every candidate's vector, so a very
+    // common term would otherwise cost time proportional to its number of matches. Selective queries are ranked exactly;
+    // for a common term an older, better match can lose its place to newer ones.
+    // With tags the candidates come from the first tag's posts newest first, as in findByTags, rather than from every
+    // post newest first probed for the tag: for a tag on 4% of the posts that was 25 probes per candidate. A common word
+    // with a tag stays the slow case, since the GIN index narrows by the words only and each post left is a heap visit.
+    // Call inside a transaction, so that CUSTOM_PLAN_SQL applies.
+    public List<PostSearchHit> search(String query, List<String> tags, int maxCandidates, int offset, int limit) {
+        jdbcTemplate.getJdbcTemplate().execute(CUSTOM_PLAN_SQL);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", query)
+                .addValue("maxCandidates", maxCandidates)
+                .addValue("offset", offset)
+                .addValue("limit", limit);
+        StringBuilder sql = new StringBuilder("select m.id, m.version, m.title, ts_rank(m.search_vector, q.tsq) as rank")
+                .append(" from (select p.id, p.version, p.title, p.search_vector from post p");
+        String postId = "p.id";
+        if (!tags.isEmpty()) {
+            params.addValue("firstTag", tags.get(0));
+            sql.append(" join post_hashtag ph on ph.post_id = p.id and ph.hashtag_id = (select h.id from hashtag h where h.name = :firstTag)");
+            postId = "ph.post_id";
+        }
+        sql.append(" where p.search_vector @@ websearch_to_tsquery('" + TEXT_SEARCH_CONFIG + "', :query)");
+        for (int i = 1; i < tags.size(); i++) {
+            sql.append(" and ").append(hasTag(postId, i, tags.get(i), params));
+        }
+        sql.append(" order by ").append(postId).append(" desc limit :maxCandidates) m, websearch_to_tsquery('" + TEXT_SEARCH_CONFIG + "', :query) q(tsq)")
+                .append(" order by rank desc, m.id desc limit :limit offset :offset");
+        return jdbcTemplate.query(sql.toString(), params, HIT_MAPPER);
+    }
+
+    // Hashtag-only search: newest posts carrying every tag, unranked. Walks the first tag's posts newest first on
+    // idx_post_hashtag_hashtag_post and checks the others per post, so a page reads about as many rows as it returns
+    // (unless the later tags rarely go with the first).
+    public List<PostSearchHit> findByTags(List<String> tags, int offset, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("firstTag", tags.get(0))
+                .addValue("offset", offset)
+                .addValue("limit", limit);
+        StringBuilder sql = new StringBuilder("select p.id, p.version, p.title, 0 as rank")
+                .append(" from post_hashtag ph join post p on p.id = ph.post_id")
+                .append(" where ph.hashtag_id = (select h.id from hashtag h where h.name = :firstTag)");
+        for (int i = 1; i < tags.size(); i++) {
+            sql.append(" and ").append(hasTag("ph.post_id", i, tags.get(i), params));
+        }
+        sql.append(" order by ph.post_id desc limit :limit offset :offset");
+        return jdbcTemplate.query(sql.toString(), params, HIT_MAPPER);
+    }
+
+    // One index probe per post on idx_post_hashtag_hashtag_post
+    private static String hasTag(String postId, int index, String tag, MapSqlParameterSource params) {
+        params.addValue("tag" + index, tag);
+        return "exists (select 1 from post_hashtag t" + index + " where t" + index + ".post_id = " + postId
+                + " and t" + index + ".hashtag_id = (select h.id from hashtag h where h.name = :tag" + index + "))";
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+
+// For writes that go out over JDBC, behind Hibernate's back: does to the query cache what Hibernate does for its own
+// writes. The tables are marked as changing until the transaction completes, so no query on them is cached meanwhile,
+// and as changed once it has, so a result read before then and cached late is rejected instead of served until its TTL.
+// Unlike a native query with synchronized query spaces, the entity and collection regions of the tables are left alone:
+// callers evict the rows they wrote (PostCacheEvictor).
+final class QuerySpaces {
+
+    private QuerySpaces() {
+    }
+
+    // Call inside the transaction, before the write
+    static void invalidate(EntityManager entityManager, String... tables) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        if (!session.getFactory().getSessionFactoryOptions().isQueryCacheEnabled()) {
+            return;
+        }
+        TimestampsCache timestamps = session.getFactory().getCache().getTimestampsCache();
+        timestamps.preInvalidate(tables, session);
+        session.getActionQueue().registerProcess((success, completed) -> timestamps.invalidate(tables, completed));
+    }
+}
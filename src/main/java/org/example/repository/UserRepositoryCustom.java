@@ -0,0 +1,16 @@
+package org.example.repository;
+
+import org.example.response.UserProfile;
+
+import java.util.Collection;
+import java.util.List;
+
+// Profile projections: user, bio text and picture URL in one statement
+public interface UserRepositoryCustom {
+
+    // In no particular order; ids without a user are skipped
+    List<UserProfile> findProfilesByIds(Collection<Long> ids);
+
+    // In id order, so the oldest account comes first when a name is taken twice
+    List<UserProfile> findProfilesByUsernames(Collection<String> usernames);
+}
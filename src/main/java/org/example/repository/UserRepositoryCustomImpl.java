@@ -0,0 +1,38 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.response.UserProfile;
+
+import java.util.Collection;
+import java.util.List;
+
+// Constructor expressions over left joins, like PatientRepositoryCustomImpl: one row per user, nothing hydrated,
+// so none of the one-to-one associations is ever loaded on its own
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String SELECT_PROFILE = "select new org.example.response.UserProfile(u.id, u.username, b.bioData, pp.imageUrl)"
+            + " from User u left join u.bio b left join u.profilePicture pp";
+
+    private static final String PROFILES_BY_IDS_JPQL = SELECT_PROFILE + " where u.id in :ids";
+
+    // Served by idx_app_user_username
+    private static final String PROFILES_BY_USERNAMES_JPQL = SELECT_PROFILE + " where u.username in :usernames order by u.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserProfile> findProfilesByIds(Collection<Long> ids) {
+        return entityManager.createQuery(PROFILES_BY_IDS_JPQL, UserProfile.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    @Override
+    public List<UserProfile> findProfilesByUsernames(Collection<String> usernames) {
+        return entityManager.createQuery(PROFILES_BY_USERNAMES_JPQL, UserProfile.class)
+                .setParameter("usernames", usernames)
+                .getResultList();
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.request;
+
+import org.example.entity.Hashtag;
+
+import java.util.List;
+
+// Body of PATCH /posts/{id}: every field left out (null) stays as it is. hashtags, when given, is the post's complete
+// new set of tags. version, when given, is the version the change is based on (409 if the post has moved on).
+public class PostPatch {
+    private Long version;
+    private String title;
+    private String content;
+    private List<Hashtag> hashtags;
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public List<Hashtag> getHashtags() {
+        return hashtags;
+    }
+
+    public void setHashtags(List<Hashtag> hashtags) {
+        this.hashtags = hashtags;
+    }
+}
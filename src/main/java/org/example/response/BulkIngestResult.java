@@ -0,0 +1,78 @@
+package org.example.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a bulk ingest: one entry per chunk, each committed (or rolled back) in its own transaction.
+// A malformed record stops the ingest; everything before it has already been processed.
+public class BulkIngestResult {
+    private final List<ChunkResult> chunks = new ArrayList<>();
+    private long accepted;
+    private long rejected;
+    private String parseError;
+
+    public void add(ChunkResult chunk) {
+        chunks.add(chunk);
+        if (chunk.isSuccess()) {
+            accepted += chunk.getCount();
+        } else {
+            rejected += chunk.getCount();
+        }
+    }
+
+    public List<ChunkResult> getChunks() {
+        return chunks;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public String getParseError() {
+        return parseError;
+    }
+
+    public void setParseError(String parseError) {
+        this.parseError = parseError;
+    }
+
+    public static class ChunkResult {
+        private final int index;
+        private final long firstRecord; // 0-based position of the chunk's first record in the request body
+        private final int count;
+        private final boolean success;
+        private final String error;
+
+        public ChunkResult(int index, long firstRecord, int count, boolean success, String error) {
+            this.index = index;
+            this.firstRecord = firstRecord;
+            this.count = count;
+            this.success = success;
+            this.error = error;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public long getFirstRecord() {
+            return firstRecord;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.response;
+
+import org.example.entity.ChangeEvent;
+
+import java.util.List;
+
+// One answer of GET /changes: events in feed order, and the cursor to pass back as "since". Unlike CursorPage the
+// cursor is never null: a feed has no last page, and an empty answer hands back the cursor it was asked for.
+public class ChangeFeedPage {
+    private final List<ChangeEvent> events;
+    private final long nextCursor;
+
+    public ChangeFeedPage(List<ChangeEvent> events, long nextCursor) {
+        this.events = events;
+        this.nextCursor = nextCursor;
+    }
+
+    public static ChangeFeedPage after(long since, List<ChangeEvent> events) {
+        return new ChangeFeedPage(events, events.isEmpty() ? since : events.get(events.size() - 1).getPosition());
+    }
+
+    public List<ChangeEvent> getEvents() {
+        return events;
+    }
+
+    public long getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// One comment row of a PostDetail; postId is only used to group the rows of a multi-post query
+public class CommentView {
+    private final Long postId;
+    private final Long id;
+    private final String text;
+
+    public CommentView(Long postId, Long id, String text) {
+        this.postId = postId;
+        this.id = id;
+        this.text = text;
+    }
+
+    @JsonIgnore
+    public Long getPostId() {
+        return postId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getText() {
+        return text;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.response;
+
+import java.util.List;
+
+// One page of a keyset-paginated listing. Pass nextCursor back as "after" to get the next page;
+// it is null once the last page has been reached.
+public class CursorPage<T> {
+    private final List<T> items;
+    private final Long nextCursor;
+
+    public CursorPage(List<T> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// One hashtag of a PostDetail; postId is only used to group the rows of a multi-post query
+public class HashtagView {
+    private final Long postId;
+    private final Long id;
+    private final String name;
+
+    public HashtagView(Long postId, Long id, String name) {
+        this.postId = postId;
+        this.id = id;
+        this.name = name;
+    }
+
+    @JsonIgnore
+    public Long getPostId() {
+        return postId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
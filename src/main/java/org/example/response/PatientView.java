@@ -0,0 +1,64 @@
+package org.example.response;
+
+// Read model of a patient and its medical record (null if it has none), projected from one join without loading
+// either entity. Serializes to the same JSON as the Patient entity.
+public class PatientView {
+    private final Long id;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final MedicalRecordView medicalRecord;
+
+    public PatientView(Long id, String firstName, String lastName, String email,
+                       Long medicalRecordId, String diagnosis, String treatmentPlan) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.medicalRecord = medicalRecordId == null ? null : new MedicalRecordView(medicalRecordId, diagnosis, treatmentPlan);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public MedicalRecordView getMedicalRecord() {
+        return medicalRecord;
+    }
+
+    public static class MedicalRecordView {
+        private final Long id;
+        private final String diagnosis;
+        private final String treatmentPlan;
+
+        public MedicalRecordView(Long id, String diagnosis, String treatmentPlan) {
+            this.id = id;
+            this.diagnosis = diagnosis;
+            this.treatmentPlan = treatmentPlan;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getDiagnosis() {
+            return diagnosis;
+        }
+
+        public String getTreatmentPlan() {
+            return treatmentPlan;
+        }
+    }
+}
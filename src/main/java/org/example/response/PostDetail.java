@@ -0,0 +1,60 @@
+package org.example.response;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Read model of a post with its hashtags, its comment count and its first comments (the rest are paged through
+// GET /posts/{id}/comments), filled from projection queries (PostRepository) without loading any entity.
+// Serializes to the same fields as the Post entity.
+public class PostDetail {
+    private final Long id;
+    private final Long version;
+    private final String title;
+    private final String content;
+    private final int commentCount;
+    private final Instant updatedAt;
+    private final List<CommentView> comments = new ArrayList<>();
+    private final List<HashtagView> hashtags = new ArrayList<>();
+
+    public PostDetail(Long id, Long version, String title, String content, int commentCount, Instant updatedAt) {
+        this.id = id;
+        this.version = version;
+        this.title = title;
+        this.content = content;
+        this.commentCount = commentCount;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public List<CommentView> getComments() {
+        return comments;
+    }
+
+    public List<HashtagView> getHashtags() {
+        return hashtags;
+    }
+}
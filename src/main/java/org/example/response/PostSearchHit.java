@@ -0,0 +1,32 @@
+package org.example.response;
+
+// One search result; rank is PostgreSQL's ts_rank (higher is better, only comparable within one query)
+public class PostSearchHit {
+    private final Long id;
+    private final Long version;
+    private final String title;
+    private final float rank;
+
+    public PostSearchHit(Long id, Long version, String title, float rank) {
+        this.id = id;
+        this.version = version;
+        this.title = title;
+        this.rank = rank;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.response;
+
+// List view of a post: one row per post, with the comment count instead of the comments
+public class PostSummary {
+    private final Long id;
+    private final Long version;
+    private final String title;
+    private final int commentCount;
+
+    public PostSummary(Long id, Long version, String title, int commentCount) {
+        this.id = id;
+        this.version = version;
+        this.title = title;
+        this.commentCount = commentCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.response;
+
+import java.time.Instant;
+
+// What identifies one state of a PostDetail: the version covers the post and its hashtags, the comment count the
+// comments (they are append-only and don't bump the version). The HTTP validators (ETag, Last-Modified) of GET /posts/{id}.
+public class PostVersion {
+    private final Long version;
+    private final int commentCount;
+    private final Instant updatedAt;
+
+    public PostVersion(Long version, int commentCount, Instant updatedAt) {
+        this.version = version;
+        this.commentCount = commentCount;
+        this.updatedAt = updatedAt;
+    }
+
+    public static PostVersion of(PostDetail post) {
+        return new PostVersion(post.getVersion(), post.getCommentCount(), post.getUpdatedAt());
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    // Strong: two representations with the same tag are byte-for-byte the same
+    public String getETag() {
+        return "\"" + version + "." + commentCount + "\"";
+    }
+
+    // Epoch millis, or -1 for rows written before updated_at existed
+    public long getLastModified() {
+        return updatedAt == null ? -1 : updatedAt.toEpochMilli();
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.response;
+
+// A hashtag and how many committed posts used it during the requested window
+public class TrendingHashtag {
+    private final String name;
+    private final long uses;
+
+    public TrendingHashtag(String name, long uses) {
+        this.name = name;
+        this.uses = uses;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getUses() {
+        return uses;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.response;
+
+// What a feed shows of a user: bio text and picture URL flattened in, projected from one join (null if missing)
+public class UserProfile {
+    private final Long id;
+    private final String username;
+    private final String bio;
+    private final String imageUrl;
+
+    public UserProfile(Long id, String username, String bio, String imageUrl) {
+        this.id = id;
+        this.username = username;
+        this.bio = bio;
+        this.imageUrl = imageUrl;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getBio() {
+        return bio;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+}
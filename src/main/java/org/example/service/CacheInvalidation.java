@@ -0,0 +1,44 @@
+package org.example.service;
+
+import java.util.Collection;
+import java.util.Set;
+
+// One message of the cache invalidation bus: the posts whose cached entries (entity, collections, page listings) and
+// the hashtags whose posting lists the other nodes must drop, and whether every cached comment goes too (after a
+// delete in SQL, see PostCacheEvictor.evictDeletedAfterCommit)
+public class CacheInvalidation {
+
+    private final Set<Long> postIds;
+    private final Set<String> hashtagNames;
+    private final boolean allComments;
+
+    public CacheInvalidation(Collection<Long> postIds, Collection<String> hashtagNames, boolean allComments) {
+        this.postIds = Set.copyOf(postIds);
+        this.hashtagNames = Set.copyOf(hashtagNames);
+        this.allComments = allComments;
+    }
+
+    public static CacheInvalidation posts(Collection<Long> postIds, boolean allComments) {
+        return new CacheInvalidation(postIds, Set.of(), allComments);
+    }
+
+    public static CacheInvalidation hashtags(Collection<String> names) {
+        return new CacheInvalidation(Set.of(), names, false);
+    }
+
+    public Set<Long> getPostIds() {
+        return postIds;
+    }
+
+    public Set<String> getHashtagNames() {
+        return hashtagNames;
+    }
+
+    public boolean isAllComments() {
+        return allComments;
+    }
+
+    public boolean isEmpty() {
+        return postIds.isEmpty() && hashtagNames.isEmpty() && !allComments;
+    }
+}
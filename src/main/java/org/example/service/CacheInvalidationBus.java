@@ -0,0 +1,162 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Tells the other nodes which of their in-process caches a committed write made stale: the second-level cache entries
+// of posts (PostCacheEvictor) and the hashtag posting lists (HashtagPostingLists). Both publish here after their own
+// eviction and subscribe to apply what the other nodes publish.
+// Invalidations are coalesced: a single thread waits batchDelay after the first one, then sends everything published
+// meanwhile, each post and tag once, as one message over the transport (see CacheInvalidationConfig). Until it
+// arrives another node may serve the old entry; a message that is lost leaves it stale until its TTL.
+// Metrics: cache.invalidation.sent (messages), .keys (per message), .received, .failures
+@Component
+public class CacheInvalidationBus {
+
+    private final CacheInvalidationTransport transport;
+    private final long batchDelayNanos;
+
+    private final Set<Long> pendingPosts = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingHashtags = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pendingComments = new AtomicBoolean();
+
+    private final List<Consumer<CacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+
+    private volatile Thread flusher;
+
+    private final Counter sent;
+    private final DistributionSummary keys;
+    private final Counter received;
+    private final Counter failures;
+
+    public CacheInvalidationBus(CacheInvalidationTransport transport,
+                                @Value("${app.cache.invalidation.batch-delay:PT0.05S}") Duration batchDelay,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+        this.transport = transport;
+        this.batchDelayNanos = batchDelay.toNanos();
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.sent = registry.counter("cache.invalidation.sent");
+        this.keys = registry.summary("cache.invalidation.keys");
+        this.received = registry.counter("cache.invalidation.received");
+        this.failures = registry.counter("cache.invalidation.failures");
+    }
+
+    @PostConstruct
+    void start() {
+        transport.start(this::receive);
+        running = true;
+        Thread thread = new Thread(this::run, "cache-invalidation-bus");
+        thread.setDaemon(true);
+        flusher = thread;
+        thread.start();
+    }
+
+    // Sends what is pending and stops
+    @PreDestroy
+    void stop() throws InterruptedException {
+        Thread thread = flusher;
+        if (thread != null) {
+            running = false;
+            LockSupport.unpark(thread);
+            thread.join(Duration.ofSeconds(10).toMillis());
+        }
+        transport.stop();
+    }
+
+    // Queues the invalidation for the other nodes; call it once the write has committed
+    public void publish(CacheInvalidation invalidation) {
+        if (invalidation.isEmpty()) {
+            return;
+        }
+        pendingPosts.addAll(invalidation.getPostIds());
+        pendingHashtags.addAll(invalidation.getHashtagNames());
+        if (invalidation.isAllComments()) {
+            pendingComments.set(true);
+        }
+        LockSupport.unpark(flusher);
+    }
+
+    // Registers a handler for the other nodes' invalidations; it runs on the transport's thread
+    public void subscribe(Consumer<CacheInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    private void run() {
+        while (true) {
+            if (hasPending()) {
+                long deadline = System.nanoTime() + batchDelayNanos;
+                long remaining;
+                while (running && (remaining = deadline - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(this, remaining); // publish() unparks early, so wait out the rest
+                }
+                flush();
+            }
+            if (!running) {
+                flush(); // whatever was published meanwhile
+                return;
+            }
+            if (!hasPending()) {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    // Sends everything pending as one message; returns it, or null if nothing was pending
+    CacheInvalidation flush() {
+        CacheInvalidation invalidation = new CacheInvalidation(drain(pendingPosts), drain(pendingHashtags),
+                pendingComments.getAndSet(false));
+        if (invalidation.isEmpty()) {
+            return null;
+        }
+        try {
+            transport.send(invalidation);
+            sent.increment();
+            keys.record(invalidation.getPostIds().size() + invalidation.getHashtagNames().size());
+        } catch (RuntimeException e) {
+            failures.increment(); // not retried: the entries expire with their TTL
+        }
+        return invalidation;
+    }
+
+    private void receive(CacheInvalidation invalidation) {
+        received.increment();
+        for (Consumer<CacheInvalidation> subscriber : subscribers) {
+            subscriber.accept(invalidation);
+        }
+    }
+
+    private boolean hasPending() {
+        return !pendingPosts.isEmpty() || !pendingHashtags.isEmpty() || pendingComments.get();
+    }
+
+    // Removes the elements one by one, so one published meanwhile is either taken now or left for the next flush
+    private static <T> List<T> drain(Set<T> pending) {
+        List<T> drained = new ArrayList<>();
+        for (Iterator<T> iterator = pending.iterator(); iterator.hasNext(); ) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.service;
+
+import java.util.function.Consumer;
+
+// Carries invalidations between the nodes for CacheInvalidationBus (see CacheInvalidationConfig for the built-in
+// ones). Delivery is best effort: a lost message leaves entries stale until their TTL (app.cache.*.ttl), which bounds
+// the damage. A node never gets its own messages back.
+public interface CacheInvalidationTransport {
+
+    void send(CacheInvalidation invalidation);
+
+    // Starts delivering the other nodes' invalidations to the receiver
+    void start(Consumer<CacheInvalidation> receiver);
+
+    void stop();
+}
@@ -0,0 +1,50 @@
+package org.example.service;
+
+import org.example.entity.ChangeEvent;
+import org.example.repository.ChangeEventRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+
+// Write side of the transactional outbox (see ChangeEvent): the events of a write are inserted as one batch in the
+// write's own transaction, so they commit or roll back with it. After commit the relay on this node is woken up,
+// which keeps the feed close to real time without it polling the table hard.
+@Component
+public class ChangeEventOutbox {
+
+    private final ChangeEventRepository changeEventRepository;
+    private final ObjectProvider<ChangeEventRelay> relay;
+    private final boolean enabled;
+
+    public ChangeEventOutbox(ChangeEventRepository changeEventRepository,
+                             ObjectProvider<ChangeEventRelay> relay,
+                             @Value("${app.outbox.enabled:true}") boolean enabled) {
+        this.changeEventRepository = changeEventRepository;
+        this.relay = relay;
+        this.enabled = enabled;
+    }
+
+    // Must be called inside the transaction of the write the events describe
+    public void record(List<ChangeEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Change events must be recorded in the transaction of their write");
+        }
+        Instant now = Instant.now();
+        events.forEach(event -> event.setOccurredAt(now));
+        changeEventRepository.append(events);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                relay.ifAvailable(ChangeEventRelay::wakeUp);
+            }
+        });
+    }
+}
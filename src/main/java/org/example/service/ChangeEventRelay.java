@@ -0,0 +1,176 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.entity.ChangeEvent;
+import org.example.repository.ChangeEventRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+// Publishes the outbox: a single thread takes the oldest unpublished events in batches of up to batchSize, gives them
+// the next feed positions, hands them to the sink and marks them published, all in one transaction per batch, so a
+// batch the sink refused (or a crash) is published again on a later run: at least once, never lost.
+// It runs when a write on this node commits (ChangeEventOutbox) and at least every interval, which picks up events
+// committed on nodes whose relay is down. Relays of several nodes don't interleave: the batch rows are locked oldest
+// first, so a second relay waits for the first one's batch to commit and then continues after its positions.
+// Published events are deleted after the retention (except the newest, which positions continue from).
+// Metrics: outbox.relay.published (events), .failures, .batch.size, .lag (from the write to its publication)
+@Component
+public class ChangeEventRelay {
+
+    private final ChangeEventRepository changeEventRepository;
+    private final ChangeEventSink sink;
+    private final ChangeFeed changeFeed;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long intervalNanos;
+    private final Duration retention;
+
+    private volatile boolean running;
+
+    private volatile Thread relay;
+
+    // Highest position this node knows of, to notice when another node published
+    private long lastPosition;
+
+    private final Counter published;
+    private final Counter failures;
+    private final DistributionSummary batchSizes;
+    private final Timer lag;
+
+    public ChangeEventRelay(ChangeEventRepository changeEventRepository,
+                            ChangeEventSink sink,
+                            ChangeFeed changeFeed,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.outbox.enabled:true}") boolean enabled,
+                            @Value("${app.outbox.relay.batch-size:500}") int batchSize,
+                            @Value("${app.outbox.relay.interval:PT1S}") Duration interval,
+                            @Value("${app.outbox.retention:P7D}") Duration retention,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.changeEventRepository = changeEventRepository;
+        this.sink = sink;
+        this.changeFeed = changeFeed;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.intervalNanos = interval.toNanos();
+        this.retention = retention;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.published = registry.counter("outbox.relay.published");
+        this.failures = registry.counter("outbox.relay.failures");
+        this.batchSizes = registry.summary("outbox.relay.batch.size");
+        this.lag = registry.timer("outbox.relay.lag");
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::run, "change-event-relay");
+        thread.setDaemon(true);
+        relay = thread;
+        thread.start();
+    }
+
+    // Publishes what is left and stops
+    @PreDestroy
+    void stop() throws InterruptedException {
+        Thread thread = relay;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(Duration.ofSeconds(10).toMillis());
+    }
+
+    public void wakeUp() {
+        LockSupport.unpark(relay);
+    }
+
+    private void run() {
+        while (true) {
+            boolean stopping = !running;
+            try {
+                int relayed;
+                do {
+                    relayed = relayBatch();
+                } while (relayed == batchSize); // a full batch: there may be more
+                if (changeFeed.hasWaiters()) {
+                    long last = changeEventRepository.findLastPosition();
+                    if (last > lastPosition) {
+                        lastPosition = last;
+                        changeFeed.advanced(last);
+                    }
+                }
+            } catch (RuntimeException e) {
+                failures.increment(); // the batch stays unpublished and is tried again after the interval
+            }
+            if (stopping) {
+                return;
+            }
+            LockSupport.parkNanos(this, intervalNanos);
+        }
+    }
+
+    // Publishes one batch; returns its size
+    int relayBatch() {
+        List<ChangeEvent> batch = transactionTemplate.execute(status -> {
+            List<ChangeEvent> events = changeEventRepository.lockUnpublished(batchSize);
+            if (events.isEmpty()) {
+                return events;
+            }
+            long position = changeEventRepository.findLastPosition();
+            Instant now = Instant.now();
+            for (ChangeEvent event : events) {
+                event.setPosition(++position);
+                event.setPublishedAt(now);
+            }
+            try {
+                sink.publish(events);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            changeEventRepository.markPublished(events);
+            return events;
+        });
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        lastPosition = batch.get(batch.size() - 1).getPosition();
+        published.increment(batch.size());
+        batchSizes.record(batch.size());
+        batch.forEach(event -> lag.record(Duration.between(event.getOccurredAt(), event.getPublishedAt())));
+        changeFeed.published(batch);
+        return batch.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval:PT1H}", initialDelayString = "${app.outbox.cleanup-interval:PT1H}")
+    public void deleteExpired() {
+        if (enabled) {
+            transactionTemplate.executeWithoutResult(status -> changeEventRepository.deletePublishedBefore(Instant.now().minus(retention)));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.service;
+
+import org.example.entity.ChangeEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+// Where ChangeEventRelay publishes the outbox (see OutboxConfig for the built-in ones; a @Primary bean replaces them).
+// Delivery is at least once: publish runs inside the relay's transaction, before the events are marked published, so
+// an exception (or a crash before commit) has the same events published again on a later run. Consumers deduplicate
+// on the event id. Batches arrive in feed order, one at a time.
+public interface ChangeEventSink {
+
+    void publish(List<ChangeEvent> events) throws IOException;
+}
@@ -0,0 +1,127 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.entity.ChangeEvent;
+import org.example.exception.TooManyRequestsException;
+import org.example.repository.ChangeEventRepository;
+import org.example.response.ChangeFeedPage;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Read side of the outbox (GET /changes): published events after a cursor, in feed order. When there are none yet
+// the request is parked as a DeferredResult, holding neither a request thread nor a connection, until the relay
+// publishes (published) or sees that another node did (advanced), or the wait runs out and it gets an empty page.
+// Metrics: changes.waiting (gauge)
+@Component
+public class ChangeFeed {
+
+    public static final int DEFAULT_LIMIT = 100;
+
+    public static final int MAX_LIMIT = 1000;
+
+    private final ChangeEventRepository changeEventRepository;
+    private final int maxWaiting;
+
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public ChangeFeed(ChangeEventRepository changeEventRepository,
+                      @Value("${app.outbox.feed.max-waiting:1000}") int maxWaiting,
+                      ObjectProvider<MeterRegistry> meterRegistry) {
+        this.changeEventRepository = changeEventRepository;
+        this.maxWaiting = maxWaiting;
+        meterRegistry.ifAvailable(registry -> Gauge.builder("changes.waiting", waiting, AtomicInteger::get).register(registry));
+    }
+
+    // Events after since; if there are none, waits up to wait for some (zero: answers right away)
+    public DeferredResult<ChangeFeedPage> poll(long since, Integer limit, Duration wait) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (wait.isZero() || wait.isNegative()) {
+            DeferredResult<ChangeFeedPage> result = new DeferredResult<>();
+            result.setResult(read(since, size));
+            return result;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            throw new TooManyRequestsException("Too many clients waiting for changes, retry later");
+        }
+        DeferredResult<ChangeFeedPage> result = new DeferredResult<>(wait.toMillis(), () -> new ChangeFeedPage(List.of(), since));
+        Waiter waiter = new Waiter(since, size, result);
+        result.onCompletion(() -> remove(waiter)); // also after a timeout or a dropped connection
+        // Registered before reading: events published in between either show up in the read or wake the waiter
+        waiters.add(waiter);
+        ChangeFeedPage page = read(since, size);
+        if (!page.getEvents().isEmpty()) {
+            complete(waiter, page);
+        }
+        return result;
+    }
+
+    public boolean hasWaiters() {
+        return !waiters.isEmpty();
+    }
+
+    // A batch this node's relay just committed, in feed order. Waiters at its start are answered from the batch itself;
+    // ones further behind (only possible if they raced an earlier batch) read the table.
+    void published(List<ChangeEvent> batch) {
+        long first = batch.get(0).getPosition();
+        for (Waiter waiter : waiters) {
+            if (waiter.since >= first - 1) {
+                List<ChangeEvent> events = batch.stream().filter(event -> event.getPosition() > waiter.since).limit(waiter.limit).toList();
+                if (!events.isEmpty()) {
+                    complete(waiter, ChangeFeedPage.after(waiter.since, events));
+                }
+            } else {
+                complete(waiter, read(waiter.since, waiter.limit));
+            }
+        }
+    }
+
+    // Events up to lastPosition were published, possibly by another node
+    void advanced(long lastPosition) {
+        for (Waiter waiter : waiters) {
+            if (waiter.since < lastPosition) {
+                complete(waiter, read(waiter.since, waiter.limit));
+            }
+        }
+    }
+
+    private void complete(Waiter waiter, ChangeFeedPage page) {
+        waiter.result.setResult(page);
+        remove(waiter);
+    }
+
+    private void remove(Waiter waiter) {
+        if (waiters.remove(waiter)) {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private ChangeFeedPage read(long since, int limit) {
+        return ChangeFeedPage.after(since, changeEventRepository.findAfter(since, limit));
+    }
+
+    private static final class Waiter {
+
+        final long since;
+
+        final int limit;
+
+        final DeferredResult<ChangeFeedPage> result;
+
+        Waiter(long since, int limit, DeferredResult<ChangeFeedPage> result) {
+            this.since = since;
+            this.limit = limit;
+            this.result = result;
+        }
+    }
+}
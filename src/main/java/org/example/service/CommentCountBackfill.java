@@ -0,0 +1,54 @@
+package org.example.service;
+
+import org.example.repository.CommentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// One-off migration for databases that had posts before post.comment_count existed
+// (app.comment.count-backfill.enabled): once the context is up, and so the column has been added, counts the comments of every post whose count is still
+// null, batchSize posts per statement, each committed on its own. Until then readers fall back to counting the
+// comments (see PostRepositoryCustomImpl), so it can be turned off again once a start has logged 0 posts counted.
+@Component
+public class CommentCountBackfill {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CommentCountBackfill.class);
+
+    private final CommentRepository commentRepository;
+    private final boolean enabled;
+    private final int batchSize;
+
+    // A web context started by AppInitializer refreshes after the root one, and its event reaches here too
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    public CommentCountBackfill(CommentRepository commentRepository,
+                                @Value("${app.comment.count-backfill.enabled:false}") boolean enabled,
+                                @Value("${app.comment.count-backfill.batch-size:1000}") int batchSize) {
+        this.commentRepository = commentRepository;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void onStartup() {
+        if (enabled && done.compareAndSet(false, true)) {
+            LOG.info("Comment count backfill: {} posts counted", backfill());
+        }
+    }
+
+    // Returns the number of posts counted
+    public long backfill() {
+        long total = 0;
+        int updated;
+        do {
+            updated = commentRepository.backfillCommentCounts(batchSize);
+            total += updated;
+        } while (updated == batchSize);
+        return total;
+    }
+}
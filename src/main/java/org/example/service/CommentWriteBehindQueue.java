@@ -0,0 +1,215 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.entity.Comment;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Opt-in write-behind for comment appends (app.comment.write-behind.enabled): a request only queues its comments and
+// gets 202, and a single flusher thread writes them through PostService.appendComments in batches of up to batchSize,
+// one transaction (one commit) per batch. A batch goes out once it is full or maxDelay after the flusher saw it start.
+// The trade: comments are durable only once their batch commits, so a crash loses what is still queued, and
+// comments for a post that doesn't exist are dropped at flush time instead of answered with 404.
+// The queue is a lock-free ConcurrentLinkedQueue bounded by an atomic count of the comments queued: producers reserve
+// room first, and a request that doesn't fit is refused whole (429). On shutdown it stops accepting and drains.
+// Metrics: comment.write-behind.queued (gauge), .accepted, .rejected and .dropped (comments), .batch.size and .flush.
+@Component
+public class CommentWriteBehindQueue {
+
+    private final PostService postService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Duration drainTimeout;
+
+    private final ConcurrentLinkedQueue<PendingComment> queue = new ConcurrentLinkedQueue<>();
+
+    // Comments reserved by producers and not yet taken by the flusher; this, not queue.size(), is what the bound checks
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private volatile boolean accepting;
+
+    private volatile Thread flusher;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter dropped;
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+
+    public CommentWriteBehindQueue(PostService postService,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.comment.write-behind.enabled:false}") boolean enabled,
+                                   @Value("${app.comment.write-behind.capacity:10000}") int capacity,
+                                   @Value("${app.comment.write-behind.batch-size:500}") int batchSize,
+                                   @Value("${app.comment.write-behind.max-delay:PT0.05S}") Duration maxDelay,
+                                   @Value("${app.comment.write-behind.drain-timeout:PT30S}") Duration drainTimeout,
+                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        this.postService = postService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.enabled = enabled;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.drainTimeout = drainTimeout;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("comment.write-behind.queued", queued, AtomicInteger::get).register(registry);
+        this.accepted = registry.counter("comment.write-behind.accepted");
+        this.rejected = registry.counter("comment.write-behind.rejected");
+        this.dropped = registry.counter("comment.write-behind.dropped");
+        this.batchSizes = registry.summary("comment.write-behind.batch.size");
+        this.flushTimer = registry.timer("comment.write-behind.flush");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        accepting = true;
+        Thread thread = new Thread(this::run, "comment-write-behind");
+        thread.setDaemon(true);
+        flusher = thread;
+        thread.start();
+    }
+
+    // Queues all comments of one request, or none of them: false if they don't fit or the queue is shutting down
+    public boolean enqueue(Long postId, List<Comment> comments) {
+        int count = comments.size();
+        if (!accepting) {
+            rejected.increment(count);
+            return false;
+        }
+        int total = queued.addAndGet(count);
+        // Checked again after reserving: once the flusher has seen the queue closed and empty, nothing may be added
+        if (total > capacity || !accepting) {
+            queued.addAndGet(-count);
+            rejected.increment(count);
+            return false;
+        }
+        comments.forEach(comment -> queue.offer(new PendingComment(postId, comment.getText())));
+        accepted.increment(count);
+        // The flusher is parked either on an empty queue or on a batch that isn't full yet
+        if (total == count || total >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+        return true;
+    }
+
+    // Stops accepting and waits up to drainTimeout for the queued comments to be written
+    @PreDestroy
+    void stop() throws InterruptedException {
+        Thread thread = flusher;
+        if (thread == null) {
+            return;
+        }
+        accepting = false;
+        LockSupport.unpark(thread);
+        thread.join(drainTimeout.toMillis());
+    }
+
+    private void run() {
+        while (true) {
+            if (queued.get() == 0) {
+                if (!accepting) {
+                    return;
+                }
+                LockSupport.parkNanos(this, maxDelayNanos);
+                continue;
+            }
+            // Give the batch until maxDelay to fill up; while draining, write what there is right away
+            long deadline = System.nanoTime() + maxDelayNanos;
+            long remaining;
+            while (accepting && queued.get() < batchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+            List<PendingComment> batch = take(batchSize);
+            if (!batch.isEmpty()) {
+                flush(batch);
+            }
+        }
+    }
+
+    private List<PendingComment> take(int max) {
+        List<PendingComment> batch = new ArrayList<>(Math.min(max, queued.get()));
+        PendingComment next;
+        while (batch.size() < max && (next = queue.poll()) != null) {
+            batch.add(next);
+        }
+        queued.addAndGet(-batch.size());
+        return batch;
+    }
+
+    private void flush(List<PendingComment> batch) {
+        // In post id order, so batches of different nodes lock the post rows in the same order and can't deadlock
+        Map<Long, List<Comment>> byPost = new TreeMap<>();
+        batch.forEach(pending -> byPost.computeIfAbsent(pending.postId, id -> new ArrayList<>()).add(new Comment(pending.text)));
+        batchSizes.record(batch.size());
+        flushTimer.record(() -> {
+            try {
+                int missing = transactionTemplate.execute(status -> {
+                    int comments = 0;
+                    for (Map.Entry<Long, List<Comment>> post : byPost.entrySet()) {
+                        comments += append(post.getKey(), post.getValue());
+                    }
+                    return comments;
+                });
+                dropped.increment(missing);
+            } catch (RuntimeException e) {
+                // Something in the batch was refused: write each post's comments on their own, so only that post's are lost
+                byPost.forEach((postId, comments) -> {
+                    try {
+                        dropped.increment(transactionTemplate.execute(status -> append(postId, comments)));
+                    } catch (RuntimeException postFailure) {
+                        dropped.increment(comments.size());
+                    }
+                });
+            }
+        });
+    }
+
+    // Number of comments dropped because the post doesn't exist
+    private int append(Long postId, List<Comment> comments) {
+        return postService.appendComments(postId, comments) == null ? comments.size() : 0;
+    }
+
+    private static final class PendingComment {
+
+        final Long postId;
+
+        final String text;
+
+        PendingComment(Long postId, String text) {
+            this.postId = postId;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.repository.HashtagRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Post ids per hashtag, newest first, for the tags that are read most. Each list is a primitive long[] (8 bytes an id,
+// against about 24 for a boxed Long in a List), so a page of a hot tag is a binary search and a copy instead of an
+// index scan. A list holds at most the newest maxLength ids; pages past them are read from the database.
+// A tag's list is only built on its second read within a minute, so one-off reads of cold tags never load one; which
+// lists stay is then up to Caffeine's frequency-based eviction, bounded by the total number of ids held.
+// Lists are dropped once a write to a post carrying the tag commits (invalidateAfterCommit), on the other nodes too
+// through the CacheInvalidationBus.
+@Component
+public class HashtagPostingLists {
+
+    private final HashtagRepository hashtagRepository;
+    private final ObjectProvider<CacheInvalidationBus> invalidationBus;
+    private final int maxLength;
+
+    private final Cache<String, PostingList> lists;
+
+    // Tags read once recently: the next read builds their list
+    private final Cache<String, Boolean> recentlyRead;
+
+    public HashtagPostingLists(HashtagRepository hashtagRepository,
+                               @Value("${app.hashtag.posting-list.max-length:10000}") int maxLength,
+                               @Value("${app.hashtag.posting-list.max-ids:1000000}") long maxIds,
+                               ObjectProvider<MeterRegistry> meterRegistry,
+                               ObjectProvider<CacheInvalidationBus> invalidationBus) {
+        this.hashtagRepository = hashtagRepository;
+        this.invalidationBus = invalidationBus;
+        this.maxLength = Math.max(1, maxLength);
+        this.lists = Caffeine.newBuilder()
+                .maximumWeight(maxIds)
+                .weigher((String name, PostingList list) -> list.ids.length + 1)
+                .recordStats()
+                .build();
+        this.recentlyRead = Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(Duration.ofMinutes(1)).build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, lists, "hashtagPostingLists"));
+        invalidationBus.ifAvailable(bus -> bus.subscribe(invalidation -> lists.invalidateAll(invalidation.getHashtagNames())));
+    }
+
+    // Ids of up to limit posts tagged name that are older than afterId (null for the newest), newest first.
+    // Must run inside a transaction when it may go to the database.
+    public List<Long> findPostIds(String name, Long afterId, int limit) {
+        long beforeId = afterId == null ? Long.MAX_VALUE : afterId;
+        PostingList list = lists.getIfPresent(name);
+        if (list == null && recentlyRead.asMap().putIfAbsent(name, Boolean.TRUE) != null) {
+            // Built through the cache: an invalidation that arrives while the list loads waits for it and then drops it,
+            // so a list read before a write committed is never kept
+            list = lists.get(name, this::load);
+        }
+        if (list != null) {
+            List<Long> ids = list.page(beforeId, limit);
+            if (ids != null) {
+                return ids;
+            }
+        }
+        return hashtagRepository.findPostIds(name, beforeId, limit);
+    }
+
+    // Drops the lists of the given (normalized) tag names once the surrounding transaction commits, right away outside
+    // of one. Call it for every tag a post had or has after a create, update or delete.
+    public void invalidateAfterCommit(Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(names);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(names);
+            }
+        });
+    }
+
+    private void invalidate(Collection<String> names) {
+        lists.invalidateAll(names);
+        invalidationBus.ifAvailable(bus -> bus.publish(CacheInvalidation.hashtags(names)));
+    }
+
+    private PostingList load(String name) {
+        List<Long> ids = hashtagRepository.findPostIds(name, Long.MAX_VALUE, maxLength + 1);
+        int length = Math.min(ids.size(), maxLength);
+        long[] array = new long[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = ids.get(i);
+        }
+        return new PostingList(array, ids.size() <= maxLength);
+    }
+
+    private static final class PostingList {
+
+        final long[] ids; // descending
+
+        final boolean complete; // false if the tag has more posts than the list holds
+
+        PostingList(long[] ids, boolean complete) {
+            this.ids = ids;
+            this.complete = complete;
+        }
+
+        // The page, or null if it reaches past the end of an incomplete list
+        List<Long> page(long beforeId, int limit) {
+            int from = firstBelow(beforeId);
+            int to = from + limit;
+            if (to > ids.length) {
+                if (!complete) {
+                    return null;
+                }
+                to = ids.length;
+            }
+            List<Long> page = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                page.add(ids[i]);
+            }
+            return page;
+        }
+
+        // Index of the first id below beforeId (ids.length if none)
+        private int firstBelow(long beforeId) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ids[mid] >= beforeId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
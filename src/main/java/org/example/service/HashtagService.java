@@ -0,0 +1,91 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.entity.Hashtag;
+import org.example.repository.HashtagRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+@Service
+public class HashtagService {
+
+    private final HashtagRepository hashtagRepository;
+
+    // name -> id of hashtags that are known to be committed. Bounded, so cold tags fall out and are looked up again.
+    private final Cache<String, Long> hashtagIds;
+
+    public HashtagService(HashtagRepository hashtagRepository,
+                          @Value("${app.hashtag.id-cache.max-size:10000}") long maxSize,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
+        this.hashtagRepository = hashtagRepository;
+        this.hashtagIds = Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, hashtagIds, "hashtagIds"));
+    }
+
+    // Returns one managed Hashtag per distinct, non-blank name, creating rows only for names never seen before.
+    // Cached names cost no database access at all; the returned references are only loaded if something reads them.
+    public List<Hashtag> resolve(Collection<Hashtag> hashtags) {
+        List<String> names = hashtags.stream().map(Hashtag::getName).collect(normalizedNames());
+        Map<String, Long> ids = resolveIds(names);
+        return names.stream().map(name -> hashtagRepository.getReferenceById(ids.get(name))).toList();
+    }
+
+    // name -> id for every given name, upserting the ones that aren't cached. Names must already be normalized.
+    public Map<String, Long> resolveIds(Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String name : names) {
+            Long id = hashtagIds.getIfPresent(name);
+            if (id != null) {
+                ids.put(name, id);
+            } else {
+                misses.add(name);
+            }
+        }
+        if (!misses.isEmpty()) {
+            Map<String, Long> created = hashtagRepository.upsertByName(misses);
+            ids.putAll(created);
+            cacheAfterCommit(created);
+        }
+        return ids;
+    }
+
+    // Trims names, drops blank ones and duplicates, keeps the first-seen order
+    public static Collector<String, ?, List<String>> normalizedNames() {
+        return Collectors.filtering(Objects::nonNull,
+                Collectors.mapping(String::trim,
+                        Collectors.filtering(name -> !name.isEmpty(),
+                                Collectors.collectingAndThen(Collectors.toCollection(LinkedHashSet::new), ArrayList::new))));
+    }
+
+    // A row inserted by a transaction that later rolls back must never be cached, or later posts would link to an id
+    // that doesn't exist. Outside a transaction every statement has already committed.
+    private void cacheAfterCommit(Map<String, Long> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            hashtagIds.putAll(ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                hashtagIds.putAll(ids);
+            }
+        });
+    }
+}
@@ -0,0 +1,232 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.entity.HashtagTrend;
+import org.example.repository.HashtagTrendRepository;
+import org.example.response.TrendingHashtag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// "Top hashtags of the last N minutes" without touching post_hashtag. Every committed post counts its hashtags into
+// per-minute buckets held in memory: a ring with one slot per minute of the window, each a name -> LongAdder map, so
+// concurrent writers never lock. A scheduled flush adds what was counted since the previous flush to hashtag_trend
+// and deletes rows older than the retention; at startup the window is filled back in from that table.
+// Counts are per node: on several nodes the table holds the total, and each node serves what it counted itself plus
+// what the table held when it started.
+@Service
+public class HashtagTrendingService {
+
+    public static final int DEFAULT_LIMIT = 10;
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    private final HashtagTrendRepository hashtagTrendRepository;
+    private final HashtagService hashtagService;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final int windowMinutes;
+    private final long retentionMinutes;
+
+    // Slot minute % windowMinutes holds that minute's bucket; a slot still holding an older minute is replaced
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    // minutes -> top MAX_LIMIT tags, so a burst of reads merges the buckets once instead of once per request
+    private final Cache<Integer, List<TrendingHashtag>> rankings;
+
+    @Autowired
+    public HashtagTrendingService(HashtagTrendRepository hashtagTrendRepository,
+                                  HashtagService hashtagService,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.hashtag.trending.window:PT60M}") Duration window,
+                                  @Value("${app.hashtag.trending.retention:P7D}") Duration retention,
+                                  @Value("${app.hashtag.trending.ranking-ttl:PT1S}") Duration rankingTtl) {
+        this(hashtagTrendRepository, hashtagService, transactionTemplate, window, retention, rankingTtl, Clock.systemUTC());
+    }
+
+    HashtagTrendingService(HashtagTrendRepository hashtagTrendRepository, HashtagService hashtagService,
+                           TransactionTemplate transactionTemplate, Duration window, Duration retention,
+                           Duration rankingTtl, Clock clock) {
+        this.hashtagTrendRepository = hashtagTrendRepository;
+        this.hashtagService = hashtagService;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.windowMinutes = (int) Math.max(1, window.toMinutes());
+        this.retentionMinutes = Math.max(windowMinutes, retention.toMinutes());
+        this.buckets = new AtomicReferenceArray<>(windowMinutes);
+        this.rankings = Caffeine.newBuilder().expireAfterWrite(rankingTtl).maximumSize(windowMinutes).build();
+    }
+
+    // Counts one use of each name once the surrounding transaction commits (right away outside of one), so posts
+    // that roll back never show up. Names must already be normalized.
+    public void recordAfterCommit(Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(names);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(names);
+            }
+        });
+    }
+
+    public void record(Collection<String> names) {
+        Bucket bucket = bucket(currentMinute());
+        names.forEach(name -> bucket.add(name, 1));
+    }
+
+    // The most used hashtags of the last minutes (capped at the window), most used first
+    public List<TrendingHashtag> getTrending(Integer minutes, Integer limit) {
+        int span = minutes == null ? windowMinutes : Math.max(1, Math.min(minutes, windowMinutes));
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<TrendingHashtag> ranking = rankings.get(span, this::rank);
+        return ranking.subList(0, Math.min(size, ranking.size()));
+    }
+
+    private List<TrendingHashtag> rank(int minutes) {
+        long now = currentMinute();
+        Map<String, Long> totals = new HashMap<>();
+        for (long minute = now - minutes + 1; minute <= now; minute++) {
+            Bucket bucket = buckets.get(slot(minute));
+            if (bucket != null && bucket.minute == minute) {
+                bucket.uses.forEach((name, uses) -> totals.merge(name, uses.sum(), Long::sum));
+            }
+        }
+        return totals.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(MAX_LIMIT)
+                .map(entry -> new TrendingHashtag(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    // Writes what was counted since the last flush, then drops rows past the retention (only when there was
+    // something to write: an idle node leaves the table alone). If it fails nothing is marked as flushed, so the next
+    // run writes the same uses again.
+    @Scheduled(fixedDelayString = "${app.hashtag.trending.flush-interval:PT10S}",
+            initialDelayString = "${app.hashtag.trending.flush-interval:PT10S}")
+    public synchronized void flush() {
+        Map<Bucket, Map<String, Long>> pending = new HashMap<>();
+        for (int slot = 0; slot < buckets.length(); slot++) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null) {
+                Map<String, Long> counted = bucket.unflushed();
+                if (!counted.isEmpty()) {
+                    pending.put(bucket, counted);
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        long oldestKept = currentMinute() - retentionMinutes;
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, Long> ids = hashtagService.resolveIds(
+                    pending.values().stream().flatMap(counted -> counted.keySet().stream()).distinct().toList());
+            Map<HashtagTrend.Key, Long> uses = new HashMap<>();
+            pending.forEach((bucket, counted) -> counted.forEach((name, count) ->
+                    uses.put(new HashtagTrend.Key(ids.get(name), bucket.minute), count)));
+            hashtagTrendRepository.addUses(uses);
+            hashtagTrendRepository.deleteBefore(oldestKept);
+        });
+        pending.forEach(Bucket::markFlushed);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    // Refills the window from the table, as already flushed, so a restart doesn't empty the ranking
+    @PostConstruct
+    void load() {
+        long now = currentMinute();
+        hashtagTrendRepository.findUsesSince(now - windowMinutes + 1).forEach((minute, uses) -> {
+            Bucket bucket = bucket(minute);
+            uses.forEach((name, count) -> bucket.add(name, count));
+            bucket.markFlushed(uses);
+        });
+    }
+
+    private Bucket bucket(long minute) {
+        int slot = slot(minute);
+        Bucket bucket = buckets.get(slot);
+        while (bucket == null || bucket.minute < minute) {
+            Bucket fresh = new Bucket(minute);
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+            bucket = buckets.get(slot); // another writer rotated it first
+        }
+        return bucket;
+    }
+
+    private int slot(long minute) {
+        return (int) Math.floorMod(minute, (long) windowMinutes);
+    }
+
+    private long currentMinute() {
+        return clock.millis() / MILLIS_PER_MINUTE;
+    }
+
+    // A slot is only reused a whole window later, long after its last flush, so replacing it loses nothing
+    private static final class Bucket {
+
+        final long minute;
+
+        final ConcurrentHashMap<String, LongAdder> uses = new ConcurrentHashMap<>();
+
+        // Uses already written to hashtag_trend; only read and written by the (synchronized) flush and by load
+        final Map<String, Long> flushed = new HashMap<>();
+
+        Bucket(long minute) {
+            this.minute = minute;
+        }
+
+        void add(String name, long count) {
+            LongAdder adder = uses.get(name); // lock-free for names already counted this minute
+            if (adder == null) {
+                adder = uses.computeIfAbsent(name, key -> new LongAdder());
+            }
+            adder.add(count);
+        }
+
+        Map<String, Long> unflushed() {
+            Map<String, Long> delta = new HashMap<>();
+            uses.forEach((name, adder) -> {
+                long count = adder.sum() - flushed.getOrDefault(name, 0L);
+                if (count > 0) {
+                    delta.put(name, count);
+                }
+            });
+            return delta;
+        }
+
+        void markFlushed(Map<String, Long> written) {
+            written.forEach((name, count) -> flushed.merge(name, count, Long::sum));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.service;
+
+import org.example.entity.ChangeEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps the last capacity events in memory: the default sink, for a single node where GET /changes is all the
+// consumers need, and for tests
+public class InMemoryChangeEventSink implements ChangeEventSink {
+
+    private final int capacity;
+
+    private final ArrayDeque<ChangeEvent> events = new ArrayDeque<>();
+
+    public InMemoryChangeEventSink(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    @Override
+    public synchronized void publish(List<ChangeEvent> batch) {
+        for (ChangeEvent event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    // The events held, oldest first
+    public synchronized List<ChangeEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+}
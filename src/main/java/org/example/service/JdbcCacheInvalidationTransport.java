@@ -0,0 +1,146 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.entity.CacheInvalidationEntry;
+import org.example.repository.CacheInvalidationEntryRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Sends invalidations through the shared database, so the nodes need nothing but the connection they already have.
+// A message is one row per key (cache_invalidation, see CacheInvalidationEntry), inserted as one batch outside of any
+// transaction; every node polls for the rows the others wrote since its last poll, every pollInterval.
+// Rows are found by their creation time on the database's clock: a poll reads from the previous poll's time minus
+// margin, so a row whose insert committed up to margin after it was stamped is still seen; the ids already applied
+// are remembered until they fall out of that window. Rows are deleted once older than the retention.
+// Metrics: cache.invalidation.poll.failures
+public class JdbcCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private final CacheInvalidationEntryRepository repository;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final long pollIntervalNanos;
+    private final Duration margin;
+    private final Duration retention;
+
+    private volatile Consumer<CacheInvalidation> receiver;
+
+    private volatile boolean running;
+
+    private volatile Thread poller;
+
+    // Only touched by the polling thread (or a test calling poll() instead of it)
+    private Instant from;
+    private final Map<Long, Instant> applied = new HashMap<>();
+
+    private final Counter failures;
+
+    public JdbcCacheInvalidationTransport(CacheInvalidationEntryRepository repository,
+                                          Duration pollInterval,
+                                          Duration margin,
+                                          Duration retention,
+                                          ObjectProvider<MeterRegistry> meterRegistry) {
+        this.repository = repository;
+        this.pollIntervalNanos = pollInterval.toNanos();
+        this.margin = margin;
+        this.retention = retention;
+        this.failures = meterRegistry.getIfAvailable(SimpleMeterRegistry::new).counter("cache.invalidation.poll.failures");
+    }
+
+    @Override
+    public void send(CacheInvalidation invalidation) {
+        List<CacheInvalidationEntry> entries = new ArrayList<>();
+        invalidation.getPostIds().forEach(id -> entries.add(new CacheInvalidationEntry(nodeId, CacheInvalidationEntry.Kind.POST, id.toString())));
+        invalidation.getHashtagNames().forEach(name -> entries.add(new CacheInvalidationEntry(nodeId, CacheInvalidationEntry.Kind.HASHTAG, name)));
+        if (invalidation.isAllComments()) {
+            entries.add(new CacheInvalidationEntry(nodeId, CacheInvalidationEntry.Kind.COMMENTS, "*"));
+        }
+        repository.append(entries);
+    }
+
+    // Receives what the other nodes send from now on; with a zero poll interval the caller polls itself (tests)
+    @Override
+    public void start(Consumer<CacheInvalidation> receiver) {
+        this.receiver = receiver;
+        this.from = repository.currentTime();
+        if (pollIntervalNanos <= 0) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::run, "cache-invalidation-poller");
+        thread.setDaemon(true);
+        poller = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        Thread thread = poller;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(Duration.ofSeconds(10).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                poll();
+            } catch (RuntimeException e) {
+                failures.increment(); // the same window is read again on the next poll
+            }
+            LockSupport.parkNanos(this, pollIntervalNanos);
+        }
+    }
+
+    // Delivers the other nodes' rows not applied yet as one invalidation; returns it, or null if there were none
+    CacheInvalidation poll() {
+        Instant now = repository.currentTime();
+        List<CacheInvalidationEntry> entries = repository.findFromOtherNodes(nodeId, from);
+        Set<Long> postIds = new HashSet<>();
+        Set<String> hashtagNames = new HashSet<>();
+        boolean allComments = false;
+        for (CacheInvalidationEntry entry : entries) {
+            if (applied.containsKey(entry.getId())) {
+                continue;
+            }
+            switch (entry.getKind()) {
+                case POST -> postIds.add(Long.valueOf(entry.getKey()));
+                case HASHTAG -> hashtagNames.add(entry.getKey());
+                case COMMENTS -> allComments = true;
+            }
+        }
+        CacheInvalidation invalidation = new CacheInvalidation(postIds, hashtagNames, allComments);
+        if (!invalidation.isEmpty()) {
+            receiver.accept(invalidation);
+        }
+        // Only once delivered: after a failure the same rows are read again
+        entries.forEach(entry -> applied.put(entry.getId(), entry.getCreatedAt()));
+        from = now.minus(margin);
+        applied.values().removeIf(createdAt -> createdAt.isBefore(from));
+        return invalidation.isEmpty() ? null : invalidation;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.jdbc.cleanup-interval:PT1M}")
+    public void deleteExpired() {
+        repository.deleteCreatedBefore(repository.currentTime().minus(retention));
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// In-JVM transport: every transport on the same Hub is a node. With its own hub (the default, a single node) it
+// sends to nobody; tests put several buses on one hub to play a cluster.
+public class LoopbackCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private final Hub hub;
+
+    private volatile Consumer<CacheInvalidation> receiver;
+
+    public LoopbackCacheInvalidationTransport(Hub hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public void send(CacheInvalidation invalidation) {
+        for (LoopbackCacheInvalidationTransport node : hub.nodes) {
+            Consumer<CacheInvalidation> target = node.receiver;
+            if (node != this && target != null) {
+                target.accept(invalidation);
+            }
+        }
+    }
+
+    @Override
+    public void start(Consumer<CacheInvalidation> receiver) {
+        this.receiver = receiver;
+        hub.nodes.add(this);
+    }
+
+    @Override
+    public void stop() {
+        hub.nodes.remove(this);
+    }
+
+    public static final class Hub {
+
+        private final List<LoopbackCacheInvalidationTransport> nodes = new CopyOnWriteArrayList<>();
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.entity.MedicalRecord;
+import org.example.entity.Patient;
+import org.example.exception.InvalidRequestException;
+import org.example.repository.PatientRepository;
+import org.example.response.CursorPage;
+import org.example.response.PatientView;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Patients with their medical record, read as PatientView projections: every read is one statement (a join), however
+// many patients it returns.
+@Service
+@RequiredArgsConstructor
+public class PatientService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static final int MAX_BATCH_SIZE = 100; // ids per batch lookup
+
+    private final PatientRepository patientRepository;
+
+    // Keyset pagination on Patient.id: afterId is the last id the client has seen (null for the first page)
+    @Transactional(readOnly = true)
+    public CursorPage<PatientView> getPatients(Long afterId, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<PatientView> patients = patientRepository.findViewsAfter(afterId == null ? 0L : afterId, pageSize);
+        Long nextCursor = patients.size() == pageSize ? patients.get(patients.size() - 1).getId() : null;
+        return new CursorPage<>(patients, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public PatientView getPatient(Long id) {
+        List<PatientView> patients = patientRepository.findViewsByIds(List.of(id));
+        return patients.isEmpty() ? null : patients.get(0);
+    }
+
+    // Exact match on the trimmed address, oldest patient first
+    @Transactional(readOnly = true)
+    public List<PatientView> getPatientsByEmail(String email) {
+        if (email == null || email.isBlank()) {
+            throw new InvalidRequestException("Lookup by email needs an email");
+        }
+        return patientRepository.findViewsByEmail(email.trim(), MAX_PAGE_SIZE);
+    }
+
+    // The patients with the given ids in the order asked for, skipping ids that don't exist; one statement
+    @Transactional(readOnly = true)
+    public List<PatientView> getPatientsByIds(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("At most " + MAX_BATCH_SIZE + " ids per batch, got " + distinctIds.size());
+        }
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PatientView> byId = patientRepository.findViewsByIds(distinctIds).stream()
+                .collect(Collectors.toMap(PatientView::getId, Function.identity()));
+        return distinctIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // Saves the patient and its medical record together (the association cascades)
+    @Transactional
+    public Patient createPatient(Patient patient) {
+        // Copies: ids sent by the client must not reach persist()
+        Patient created = new Patient(patient.getFirstName(), patient.getLastName(),
+                patient.getEmail() == null ? null : patient.getEmail().trim());
+        MedicalRecord record = patient.getMedicalRecord();
+        if (record != null) {
+            created.setMedicalRecord(new MedicalRecord(record.getDiagnosis(), record.getTreatmentPlan()));
+        }
+        return patientRepository.save(created);
+    }
+}
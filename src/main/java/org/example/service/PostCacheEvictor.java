@@ -0,0 +1,84 @@
+package org.example.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.config.CacheConfig;
+import org.example.entity.Comment;
+import org.example.entity.Post;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+// Drops a post's second-level cache entries once a write to it has committed. Hibernate already keeps the cache
+// in step with writes that go through the persistence context; this also covers the cached page listings and any
+// write path that bypasses Hibernate (bulk or native SQL).
+// With several nodes the cache of each is its own: evictions are also published on the CacheInvalidationBus, and the
+// ones the other nodes publish are applied here.
+@Component
+public class PostCacheEvictor {
+
+    private final SessionFactory sessionFactory;
+    private final ObjectProvider<CacheInvalidationBus> invalidationBus;
+
+    public PostCacheEvictor(EntityManagerFactory entityManagerFactory, ObjectProvider<CacheInvalidationBus> invalidationBus) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.invalidationBus = invalidationBus;
+        invalidationBus.ifAvailable(bus -> bus.subscribe(this::apply));
+    }
+
+    public void evictAfterCommit(Long postId) {
+        afterCommit(() -> {
+            evict(postId);
+            invalidationBus.ifAvailable(bus -> bus.publish(CacheInvalidation.posts(List.of(postId), false)));
+        });
+    }
+
+    // For posts deleted in SQL: their comments' ids aren't known, so every cached comment goes too
+    public void evictDeletedAfterCommit(Collection<Long> postIds) {
+        afterCommit(() -> {
+            evict(postIds, true);
+            invalidationBus.ifAvailable(bus -> bus.publish(CacheInvalidation.posts(postIds, true)));
+        });
+    }
+
+    public void evict(Long postId) {
+        evict(List.of(postId), false);
+    }
+
+    // An invalidation from another node
+    private void apply(CacheInvalidation invalidation) {
+        if (!invalidation.getPostIds().isEmpty() || invalidation.isAllComments()) {
+            evict(invalidation.getPostIds(), invalidation.isAllComments());
+        }
+    }
+
+    private void evict(Collection<Long> postIds, boolean allComments) {
+        org.hibernate.Cache cache = sessionFactory.getCache();
+        for (Long postId : postIds) {
+            cache.evictEntityData(Post.class, postId);
+            cache.evictCollectionData(Post.class.getName() + ".comments", postId);
+            cache.evictCollectionData(Post.class.getName() + ".hashtags", postId);
+        }
+        if (allComments) {
+            cache.evictEntityData(Comment.class);
+        }
+        cache.evictQueryRegion(CacheConfig.POST_PAGES_REGION);
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
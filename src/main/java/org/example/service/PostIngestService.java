@@ -0,0 +1,167 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.entity.ChangeEvent;
+import org.example.entity.Comment;
+import org.example.entity.Hashtag;
+import org.example.entity.Post;
+import org.example.request.PostRequest;
+import org.example.response.BulkIngestResult;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Bulk import of posts. The body is parsed one record at a time, so memory use depends on the chunk size and not
+// on the size of the upload. Each chunk is its own transaction: a bad chunk is rolled back and reported, and the
+// chunks around it still commit.
+@Service
+public class PostIngestService {
+
+    private final ObjectReader postRequestReader;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final HashtagService hashtagService;
+
+    private final HashtagTrendingService hashtagTrendingService;
+
+    private final HashtagPostingLists hashtagPostingLists;
+
+    private final ChangeEventOutbox changeEventOutbox;
+
+    private final int chunkSize;
+
+    private final int flushInterval;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PostIngestService(ObjectMapper objectMapper,
+                             TransactionTemplate transactionTemplate,
+                             HashtagService hashtagService,
+                             HashtagTrendingService hashtagTrendingService,
+                             HashtagPostingLists hashtagPostingLists,
+                             ChangeEventOutbox changeEventOutbox,
+                             @Value("${app.ingest.chunk-size:1000}") int chunkSize,
+                             @Value("${app.ingest.flush-interval:50}") int flushInterval) {
+        this.postRequestReader = objectMapper.readerFor(PostRequest.class);
+        this.transactionTemplate = transactionTemplate;
+        this.hashtagService = hashtagService;
+        this.hashtagTrendingService = hashtagTrendingService;
+        this.hashtagPostingLists = hashtagPostingLists;
+        this.changeEventOutbox = changeEventOutbox;
+        this.chunkSize = chunkSize;
+        this.flushInterval = flushInterval; // keep equal to hibernate.jdbc.batch_size so each flush fills whole batches
+    }
+
+    // Accepts a JSON array of PostRequest or newline-delimited PostRequest objects
+    public BulkIngestResult ingest(InputStream body) throws IOException {
+        BulkIngestResult result = new BulkIngestResult();
+        List<PostRequest> chunk = new ArrayList<>(chunkSize);
+        long record = 0;
+        try (MappingIterator<PostRequest> requests = postRequestReader.readValues(body)) {
+            while (requests.hasNextValue()) {
+                chunk.add(requests.nextValue());
+                record++;
+                if (chunk.size() == chunkSize) {
+                    result.add(persistChunk(result.getChunks().size(), record - chunk.size(), chunk));
+                    chunk.clear();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Malformed input: stop here, but still store the complete records read before it
+            result.setParseError("Record " + record + ": " + e.getMessage());
+        }
+        if (!chunk.isEmpty()) {
+            result.add(persistChunk(result.getChunks().size(), record - chunk.size(), chunk));
+        }
+        return result;
+    }
+
+    private BulkIngestResult.ChunkResult persistChunk(int index, long firstRecord, List<PostRequest> chunk) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Bulk-loaded rows would only push hot posts out of the second-level cache
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+                // One hashtag lookup/upsert for the whole chunk
+                Map<String, Long> hashtagIds = hashtagService.resolveIds(chunk.stream()
+                        .filter(request -> request.getHashtags() != null)
+                        .flatMap(request -> request.getHashtags().stream())
+                        .map(Hashtag::getName)
+                        .collect(HashtagService.normalizedNames()));
+
+                List<ChangeEvent> events = new ArrayList<>();
+                int pending = 0;
+                for (PostRequest request : chunk) {
+                    Post post = persist(request, hashtagIds);
+                    // Ids are assigned on persist; the hashtag references are never initialized
+                    events.add(ChangeEvent.post(post.getId(), ChangeEvent.Action.CREATED));
+                    post.getHashtags().forEach(hashtag -> events.add(ChangeEvent.hashtag(hashtag.getId(), post.getId(), ChangeEvent.Action.ADDED)));
+                    if (++pending % flushInterval == 0) {
+                        // Send the JDBC batches and empty the persistence context so it doesn't grow with the chunk
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+                changeEventOutbox.record(events);
+
+                // One use per post and tag, counted only if the chunk commits
+                hashtagTrendingService.recordAfterCommit(chunk.stream()
+                        .filter(request -> request.getHashtags() != null)
+                        .flatMap(request -> request.getHashtags().stream()
+                                .map(Hashtag::getName)
+                                .collect(HashtagService.normalizedNames())
+                                .stream())
+                        .toList());
+                hashtagPostingLists.invalidateAfterCommit(hashtagIds.keySet());
+            });
+            return new BulkIngestResult.ChunkResult(index, firstRecord, chunk.size(), true, null);
+        } catch (RuntimeException e) {
+            return new BulkIngestResult.ChunkResult(index, firstRecord, chunk.size(), false, e.getMessage());
+        }
+    }
+
+    private Post persist(PostRequest request, Map<String, Long> hashtagIds) {
+        // Copy into a new entity: ids or collections sent by the client must not reach persist()
+        Post post = new Post();
+        if (request.getPost() != null) {
+            post.setTitle(request.getPost().getTitle());
+            post.setContent(request.getPost().getContent());
+        }
+        if (request.getComments() != null) {
+            for (Comment source : request.getComments()) {
+                Comment comment = new Comment(source.getText());
+                comment.setPost(post);
+                post.getComments().add(comment); // persisted through the cascade from Post
+            }
+        }
+        post.setCommentCount(post.getComments().size());
+        if (request.getHashtags() != null) {
+            request.getHashtags().stream()
+                    .map(Hashtag::getName)
+                    .collect(HashtagService.normalizedNames())
+                    .stream()
+                    .map(hashtagIds::get)
+                    .filter(Objects::nonNull)
+                    .forEach(id -> post.getHashtags().add(entityManager.getReference(Hashtag.class, id)));
+        }
+        entityManager.persist(post);
+        return post;
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.service;
+
+import org.example.exception.InvalidRequestException;
+import org.example.repository.PostSearchRepository;
+import org.example.response.CursorPage;
+import org.example.response.PostSearchHit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// Ranked full-text search over post title and content, optionally narrowed to posts carrying all of the given
+// hashtags (see PostSearchRepository). Results are ordered by rank, not id, so the cursor is the offset of the next
+// page; pages stay consistent as long as the matching posts don't change between calls.
+@Service
+public class PostSearchService {
+
+    private final PostSearchRepository postSearchRepository;
+    private final int maxCandidates;
+
+    public PostSearchService(PostSearchRepository postSearchRepository,
+                             @Value("${app.search.max-candidates:1000}") int maxCandidates) {
+        this.postSearchRepository = postSearchRepository;
+        this.maxCandidates = maxCandidates;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<PostSearchHit> search(String query, Collection<String> tags, Long after, Integer limit) {
+        String text = query == null ? "" : query.trim();
+        List<String> tagNames = tags == null ? Collections.emptyList() : tags.stream().collect(HashtagService.normalizedNames());
+        if (text.isEmpty() && tagNames.isEmpty()) {
+            throw new InvalidRequestException("Search needs a query (q) or at least one hashtag (tag)");
+        }
+        int offset = after == null ? 0 : (int) Math.min(Math.max(after, 0L), maxCandidates);
+        int pageSize = limit == null ? PostService.DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, PostService.MAX_PAGE_SIZE));
+
+        List<PostSearchHit> hits = text.isEmpty()
+                ? postSearchRepository.findByTags(tagNames, offset, pageSize)
+                : postSearchRepository.search(text, tagNames, maxCandidates, offset, pageSize);
+        Long nextCursor = hits.size() == pageSize ? (long) (offset + pageSize) : null;
+        return new CursorPage<>(hits, nextCursor);
+    }
+}
@@ -1,75 +1,266 @@
 package org.example.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.example.entity.ChangeEvent;
 import org.example.entity.Comment;
 import org.example.entity.Hashtag;
 import org.example.entity.Post;
+import org.example.exception.ConflictException;
 import org.example.exception.CustomServiceException;
+import org.example.exception.InvalidRequestException;
 import org.example.repository.CommentRepository;
 import org.example.repository.HashtagRepository;
 import org.example.repository.PostRepository;
+import org.example.request.PostPatch;
+import org.example.response.CommentView;
+import org.example.response.CursorPage;
+import org.example.response.PostDetail;
+import org.example.response.PostSummary;
+import org.example.response.PostVersion;
+import org.hibernate.CacheMode;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service // Marks this class as a Service for business logic
-@RequiredArgsConstructor // Generates a constructor for final fields, like postRepository, commentRepository, and hashtagRepository
+@Timed(value = "post.service", histogram = true) // a timer per public method, tags class/method/exception (see MetricsConfig)
+@RequiredArgsConstructor // Generates a constructor for final fields, like postRepository, commentRepository, and hashtagService
 public class PostService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static final int COMMENT_PREVIEW_SIZE = 20; // comments per post in a PostDetail; page on with getComments
+
+    public static final int MAX_DELETE_BATCH_SIZE = 500; // posts per deletePosts call
+
+    private static final int STREAM_CHUNK_SIZE = 100; // posts whose collections are fetched together while streaming
+
     private final PostRepository postRepository; // Automatically injected by Spring due to @RequiredArgsConstructor so // @Autowired - not required.
     
     private final CommentRepository commentRepository;
     
+    private final HashtagService hashtagService;
+
     private final HashtagRepository hashtagRepository;
 
-    // Note: Make sure saveComments and saveHashtags are also transactional so they commit their own changes.
-    @Async
-    @Transactional
-    public CompletableFuture<Void> saveComments(Post post, List<Comment> comments) {
-        post.setComments(comments);
-        comments.forEach(comment -> comment.setPost(post));
-        commentRepository.saveAll(comments);
-        return CompletableFuture.completedFuture(null);
-    }
+    private final PostCacheEvictor postCacheEvictor;
 
-    @Async // Makes the method run in a separate thread
-    @Transactional
-    public CompletableFuture<Void> saveHashtags(Post post, List<Hashtag> hashtags) {
-        post.getHashtags().addAll(hashtags);
-        hashtagRepository.saveAll(hashtags);
-        return CompletableFuture.completedFuture(null);
-    }
-    
+    private final TransactionRetrier transactionRetrier;
+
+    private final HashtagTrendingService hashtagTrendingService;
+
+    private final HashtagPostingLists hashtagPostingLists;
+
+    private final ChangeEventOutbox changeEventOutbox;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Loads the post with its comments and hashtags in two queries, so serializing it doesn't fire any more
+    @Transactional(readOnly = true)
     public Post getPostById(Long id) {
-        Optional<Post> optionalPost = postRepository.findById(id);
-        return optionalPost.orElse(null);
+        List<Post> posts = fetchWithCollections(List.of(id));
+        return posts.isEmpty() ? null : posts.get(0);
     }
     
-    public List<Post> getAllPosts() {
-        return postRepository.findAll();
+    // Read-side views for the API: DTOs filled by projection queries (PostRepositoryCustom), so no entity is hydrated
+    // or dirty-checked. Three statements per call (posts, comment previews, hashtags), all query-cached.
+    @Transactional(readOnly = true)
+    public PostDetail getPostDetail(Long id) {
+        List<PostDetail> details = fetchDetails(id - 1, id, 1);
+        return details.isEmpty() ? null : details.get(0);
+    }
+
+    // What getPostDetail would return a version of, without reading it: one query-cached statement, for
+    // conditional GETs. Null if there is no such post.
+    @Transactional(readOnly = true)
+    public PostVersion getPostVersion(Long id) {
+        return postRepository.findVersion(id);
+    }
+
+    // Keyset pagination on Post.id: afterId is the last id the client has seen (null for the first page)
+    @Transactional(readOnly = true)
+    public CursorPage<PostDetail> getPostDetails(Long afterId, Integer limit) {
+        int pageSize = pageSize(limit);
+        List<PostDetail> details = fetchDetails(afterId == null ? 0L : afterId, Long.MAX_VALUE, pageSize);
+        Long nextCursor = details.size() == pageSize ? details.get(details.size() - 1).getId() : null;
+        return new CursorPage<>(details, nextCursor);
+    }
+
+    // One statement per page: no comments or hashtags, just their count
+    @Transactional(readOnly = true)
+    public CursorPage<PostSummary> getPostSummaries(Long afterId, Integer limit) {
+        int pageSize = pageSize(limit);
+        List<PostSummary> summaries = postRepository.findSummariesAfter(afterId == null ? 0L : afterId, pageSize);
+        Long nextCursor = summaries.size() == pageSize ? summaries.get(summaries.size() - 1).getId() : null;
+        return new CursorPage<>(summaries, nextCursor);
+    }
+
+    // Posts tagged name, newest first: afterId is the last id the client has seen. The ids of a hot tag's page come from
+    // memory (HashtagPostingLists), others from the (hashtag_id, post_id) index; then one statement for the summaries.
+    @Transactional(readOnly = true)
+    public CursorPage<PostSummary> getPostSummariesByHashtag(String name, Long afterId, Integer limit) {
+        int pageSize = pageSize(limit);
+        List<Long> ids = hashtagPostingLists.findPostIds(name.trim(), afterId, pageSize);
+        Long nextCursor = ids.size() == pageSize ? ids.get(ids.size() - 1) : null;
+        if (ids.isEmpty()) {
+            return new CursorPage<>(List.of(), nextCursor);
+        }
+        Map<Long, PostSummary> byId = postRepository.findSummariesByIds(ids).stream()
+                .collect(Collectors.toMap(PostSummary::getId, Function.identity()));
+        return new CursorPage<>(ids.stream().map(byId::get).filter(Objects::nonNull).toList(), nextCursor);
+    }
+
+    // Posts in (afterId, lastId], then the comments and hashtags of exactly the posts returned: the id range is
+    // narrowed to the last post found, which with keyset ordering is the same set as the page.
+    private List<PostDetail> fetchDetails(long afterId, long lastId, int limit) {
+        List<PostDetail> details = postRepository.findDetailsInRange(afterId, lastId, limit);
+        if (details.isEmpty()) {
+            return details;
+        }
+        long pageLastId = details.get(details.size() - 1).getId();
+        Map<Long, PostDetail> byId = details.stream().collect(Collectors.toMap(PostDetail::getId, Function.identity()));
+        postRepository.findCommentPreviewsInRange(afterId, pageLastId, COMMENT_PREVIEW_SIZE)
+                .forEach(comment -> byId.get(comment.getPostId()).getComments().add(comment));
+        postRepository.findHashtagViewsInRange(afterId, pageLastId).forEach(hashtag -> byId.get(hashtag.getPostId()).getHashtags().add(hashtag));
+        return details;
+    }
+
+    // A post's comments in id order, one keyset page at a time (afterId: the last comment id seen); null if there is
+    // no such post. Only ever reads one page, however many comments the post has.
+    @Transactional(readOnly = true)
+    public CursorPage<CommentView> getComments(Long postId, Long afterId, Integer limit) {
+        int pageSize = pageSize(limit);
+        List<CommentView> comments = postRepository.findCommentViewsAfter(postId, afterId == null ? 0L : afterId, pageSize);
+        if (comments.isEmpty() && !postRepository.existsById(postId)) {
+            return null;
+        }
+        Long nextCursor = comments.size() == pageSize ? comments.get(comments.size() - 1).getId() : null;
+        return new CursorPage<>(comments, nextCursor);
+    }
+
+    // Adds comments to a post without loading it or its comment collection: one statement bumps the comment count
+    // (and finds out whether the post exists), then the comments go out as one JDBC batch. Null if there is no such post.
+    // Appends to the same post queue on its row lock until they commit, but never conflict with each other or with updatePost.
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<CommentView> appendComments(Long postId, List<Comment> comments) {
+        if (commentRepository.addToCommentCount(postId, comments.size()) == 0) {
+            return null;
+        }
+        Post post = entityManager.getReference(Post.class, postId); // an uninitialized proxy: only its id is used
+        // Copies: ids or posts sent by the client must not reach persist()
+        List<Comment> saved = comments.stream().map(source -> {
+            Comment comment = new Comment(source.getText());
+            comment.setPost(post);
+            return comment;
+        }).toList();
+        commentRepository.saveAll(saved);
+        changeEventOutbox.record(saved.stream().map(comment -> ChangeEvent.comment(comment.getId(), postId, ChangeEvent.Action.CREATED)).toList());
+        postCacheEvictor.evictAfterCommit(postId);
+        return saved.stream().map(comment -> new CommentView(postId, comment.getId(), comment.getText())).toList();
+    }
+
+    private static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    // Hands every post to the consumer one at a time, detaching it afterwards so the persistence context
+    // (and the heap) stays flat no matter how many rows the table has.
+    @Transactional(readOnly = true)
+    public void streamAllPosts(Consumer<Post> consumer) {
+        // Read from the second-level cache but don't fill it: a full scan would push the hot posts out
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.GET);
+        try (Stream<Post> posts = postRepository.streamAllOrderById()) {
+            List<Post> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+            posts.forEach(post -> {
+                chunk.add(post);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    emitChunk(chunk, consumer);
+                }
+            });
+            emitChunk(chunk, consumer);
+        }
+    }
+
+    private void emitChunk(List<Post> chunk, Consumer<Post> consumer) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // Initializes the collections of the posts already in the persistence context: two queries per chunk
+        fetchWithCollections(chunk.stream().map(Post::getId).toList());
+        chunk.forEach(consumer);
+        chunk.forEach(entityManager::detach); // cascades to the posts' comments and hashtags
+        chunk.clear();
+    }
+
+    // Two-phase fetch: the caller already has the ids, this loads the posts with comments, then with hashtags.
+    // Posts already in the second-level cache are skipped and served from it (with their cached collections).
+    // Must run inside a transaction so all loads share a persistence context.
+    private List<Post> fetchWithCollections(List<Long> ids) {
+        jakarta.persistence.Cache cache = entityManager.getEntityManagerFactory().getCache();
+        List<Long> uncached = ids.stream().filter(id -> !cache.contains(Post.class, id)).toList();
+        if (!uncached.isEmpty()) {
+            postRepository.findWithCommentsByIdIn(uncached);
+            postRepository.findWithHashtagsByIdIn(uncached);
+        }
+        // Every post is now in the persistence context or the cache, so find() doesn't go back to the database
+        List<Post> posts = ids.stream().map(id -> entityManager.find(Post.class, id)).filter(Objects::nonNull).toList();
+        posts.forEach(post -> {
+            Hibernate.initialize(post.getComments());
+            Hibernate.initialize(post.getHashtags());
+        });
+        return posts;
     }
     
-    @Transactional(readOnly = false, isolation = Isolation.SERIALIZABLE) // Ensures all database actions within this method are rolled back if something fails
+    // READ COMMITTED is enough here: the method only inserts new rows, and the one shared write (the hashtag upsert)
+    // is conflict-free by construction. SERIALIZABLE made concurrent creates abort each other with serialization failures.
+    @Transactional(readOnly = false, isolation = Isolation.READ_COMMITTED) // Ensures all database actions within this method are rolled back if something fails
     public Post createPostWithCommentsAndHashtags(Post post, List<Comment> comments, List<Hashtag> hashtags) {
         try {
-            // 1. Save post first
+            // 1. Save post first. The count goes in before: the INSERT carries the state persist() saw, and a later
+            //    change to it would be an UPDATE, which comment_count never takes (see Post.commentCount)
+            post.setCommentCount(comments.size());
             Post savedPost = postRepository.save(post);
 
-            // 2. Save comments and hashtags asynchronously to speed up processing
-            CompletableFuture<Void> commentsFuture = this.saveComments(savedPost, comments);
-            CompletableFuture<Void> hashtagsFuture = this.saveHashtags(savedPost, hashtags);
+            // 2. Queue comments and hashtags in the same persistence context. This stays on the request thread:
+            //    a transaction is bound to one connection, and the comment and join rows reference the post row,
+            //    which no other connection can see before commit.
+            saveComments(savedPost, comments);
+            saveHashtags(savedPost, hashtags);
 
-            // 3. Wait for both asynchronous tasks to complete before returning the post
-            CompletableFuture.allOf(commentsFuture, hashtagsFuture).join();
+            // 3. Flush: post, comment, hashtag and join rows go out as a few JDBC batches (order_inserts groups them
+            //    per table) instead of a round trip per row, and failures surface here to be translated below
+            postRepository.flush();
+
+            // 4. One event for the post and one per hashtag; its first comments come with the post, without events
+            List<ChangeEvent> events = new ArrayList<>();
+            events.add(ChangeEvent.post(savedPost.getId(), ChangeEvent.Action.CREATED));
+            savedPost.getHashtags().forEach(hashtag -> events.add(ChangeEvent.hashtag(hashtag.getId(), savedPost.getId(), ChangeEvent.Action.ADDED)));
+            changeEventOutbox.record(events);
             
-            // 4. Return the saved post after comments and hashtags have been saved
+            // 5. Return the saved post after comments and hashtags have been saved
             return savedPost;
         } catch (DataAccessException e) {
             // Log the specific database exception
@@ -82,33 +273,157 @@ public class PostService {
        
     }
 
-    // Update a Post by ID
+    private void saveComments(Post post, List<Comment> comments) {
+        post.setComments(comments);
+        comments.forEach(comment -> comment.setPost(post));
+        commentRepository.saveAll(comments);
+    }
+
+    // Links the post to existing hashtag rows, creating only the ones that don't exist yet
+    private void saveHashtags(Post post, List<Hashtag> hashtags) {
+        post.getHashtags().addAll(hashtagService.resolve(hashtags));
+        // Names from the request: the resolved hashtags are uninitialized references
+        List<String> names = hashtags.stream().map(Hashtag::getName).collect(HashtagService.normalizedNames());
+        hashtagTrendingService.recordAfterCommit(names);
+        hashtagPostingLists.invalidateAfterCommit(names);
+    }
+
+    // Update a Post by ID. If the request carries the version it was based on, a newer version in the database is a
+    // conflict (409) instead of a silent overwrite. Concurrent updates that collide at commit are retried from a fresh read.
     public Post updatePost(Long id, Post post, List<Hashtag> hashtags) {
+        return transactionRetrier.execute("updatePost", status -> applyUpdate(id, post, hashtags));
+    }
+
+    private Post applyUpdate(Long id, Post post, List<Hashtag> hashtags) {
         Post existingPost = getPostById(id);
         if(existingPost != null) {
+            if (post.getVersion() != null && !post.getVersion().equals(existingPost.getVersion())) {
+                throw new ConflictException("Post " + id + " has been modified since version " + post.getVersion());
+            }
             if (existingPost.getTitle() != null) {
                 existingPost.setTitle(post.getTitle());
             }
             if(existingPost.getContent() != null) {
                 existingPost.setContent(post.getContent());
             }
-           
+
+            List<ChangeEvent> events = new ArrayList<>();
+            events.add(ChangeEvent.post(id, ChangeEvent.Action.UPDATED));
             if (existingPost.getHashtags() != null) {
-                existingPost.setHashtags(hashtags);
+                List<String> previousNames = existingPost.getHashtags().stream().map(Hashtag::getName).toList();
+                List<String> names = hashtags.stream().map(Hashtag::getName).collect(HashtagService.normalizedNames());
+                List<Long> previousIds = existingPost.getHashtags().stream().map(Hashtag::getId).toList();
+                List<Hashtag> resolved = hashtagService.resolve(hashtags);
+                List<Long> ids = resolved.stream().map(Hashtag::getId).toList();
+                existingPost.setHashtags(new ArrayList<>(resolved));
+                ids.stream().filter(hashtagId -> !previousIds.contains(hashtagId))
+                        .forEach(hashtagId -> events.add(ChangeEvent.hashtag(hashtagId, id, ChangeEvent.Action.ADDED)));
+                previousIds.stream().filter(hashtagId -> !ids.contains(hashtagId))
+                        .forEach(hashtagId -> events.add(ChangeEvent.hashtag(hashtagId, id, ChangeEvent.Action.REMOVED)));
+                // Only tags the update adds count as new uses, and only added or removed tags change a posting list
+                List<String> added = names.stream().filter(name -> !previousNames.contains(name)).toList();
+                hashtagTrendingService.recordAfterCommit(added);
+                hashtagPostingLists.invalidateAfterCommit(Stream.concat(added.stream(),
+                        previousNames.stream().filter(name -> !names.contains(name))).toList());
             }
-            return postRepository.save(existingPost);
+            Post savedPost = postRepository.save(existingPost);
+            changeEventOutbox.record(events);
+            postCacheEvictor.evictAfterCommit(id);
+            return savedPost;
         }
         return null;
     }
     
-    // Delete a Post by ID
+    // Partial update (PATCH): only what the patch carries changes. Hashtags, when given, are applied as a diff of the
+    // post's current set: join rows are inserted for added tags and deleted for removed ones, the rest stay untouched,
+    // where setHashtags in updatePost makes Hibernate delete and re-insert every row of the bag. Neither the
+    // post's comments nor its hashtag collection are loaded, and @DynamicUpdate on Post keeps the UPDATE to the
+    // changed columns. One transaction; the post row is locked first, so patches of the same post queue instead
+    // of conflicting. Returns the new validators (see getPostVersion), or null if there is no such post.
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public PostVersion patchPost(Long id, PostPatch patch) {
+        Post post = entityManager.find(Post.class, id, LockModeType.PESSIMISTIC_WRITE);
+        if (post == null) {
+            return null;
+        }
+        if (patch.getVersion() != null && !patch.getVersion().equals(post.getVersion())) {
+            throw new ConflictException("Post " + id + " has been modified since version " + patch.getVersion());
+        }
+        // The same value again isn't dirty, so it writes nothing (and records no event)
+        boolean changed = false;
+        if (patch.getTitle() != null && !patch.getTitle().equals(post.getTitle())) {
+            post.setTitle(patch.getTitle());
+            changed = true;
+        }
+        if (patch.getContent() != null && !patch.getContent().equals(post.getContent())) {
+            post.setContent(patch.getContent());
+            changed = true;
+        }
+        List<ChangeEvent> hashtagEvents = patch.getHashtags() == null ? List.of() : patchHashtags(id, patch.getHashtags());
+        if (!hashtagEvents.isEmpty()) {
+            // The join rows went out over JDBC, behind Hibernate's back: touching the row still bumps the version
+            post.setUpdatedAt(Instant.now());
+        }
+        if (changed || !hashtagEvents.isEmpty()) {
+            List<ChangeEvent> events = new ArrayList<>();
+            events.add(ChangeEvent.post(id, ChangeEvent.Action.UPDATED));
+            events.addAll(hashtagEvents);
+            changeEventOutbox.record(events);
+        }
+        postCacheEvictor.evictAfterCommit(id);
+        return postRepository.findVersion(id); // flushes the UPDATE first
+    }
+
+    // The change events of the hashtags added and removed, none if the set is the same. Only names the post doesn't
+    // carry yet are resolved (and created).
+    private List<ChangeEvent> patchHashtags(Long postId, List<Hashtag> hashtags) {
+        List<String> names = hashtags.stream().map(Hashtag::getName).collect(HashtagService.normalizedNames());
+        Map<Long, String> current = hashtagRepository.findByPostId(postId);
+        Collection<String> currentNames = current.values();
+        List<String> addedNames = names.stream().filter(name -> !currentNames.contains(name)).toList();
+        List<Long> removedIds = current.entrySet().stream()
+                .filter(hashtag -> !names.contains(hashtag.getValue()))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (addedNames.isEmpty() && removedIds.isEmpty()) {
+            return List.of();
+        }
+        Collection<Long> addedIds = hashtagService.resolveIds(addedNames).values();
+        hashtagRepository.removeFromPost(postId, removedIds);
+        hashtagRepository.addToPost(postId, addedIds);
+        hashtagTrendingService.recordAfterCommit(addedNames);
+        hashtagPostingLists.invalidateAfterCommit(Stream.concat(addedNames.stream(),
+                removedIds.stream().map(current::get)).toList());
+        return Stream.concat(
+                addedIds.stream().map(hashtagId -> ChangeEvent.hashtag(hashtagId, postId, ChangeEvent.Action.ADDED)),
+                removedIds.stream().map(hashtagId -> ChangeEvent.hashtag(hashtagId, postId, ChangeEvent.Action.REMOVED))).toList();
+    }
+
+    // Delete a Post by ID, see deletePosts. False if there is no such post.
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public boolean deletePost(Long id) {
-        Post existingPost = getPostById(id);
-        if(existingPost != null) {
-            postRepository.delete(existingPost);
-            return true;
+        return !deletePosts(List.of(id)).isEmpty();
+    }
+
+    // Deletes the posts with their comments and hashtag links in set-based SQL: one statement finds and locks the
+    // posts that exist, one reads their hashtag names (for the posting lists), and one per table deletes, however
+    // many comments the posts have. Nothing is loaded, and hashtags stay, as other posts may carry them.
+    // Returns the ids that were deleted, in id order; ids without a post are left out.
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<Long> deletePosts(Collection<Long> ids) {
+        if (ids.size() > MAX_DELETE_BATCH_SIZE) {
+            throw new InvalidRequestException("At most " + MAX_DELETE_BATCH_SIZE + " posts per delete, got " + ids.size());
+        }
+        List<Long> existing = ids.isEmpty() ? List.of() : postRepository.lockExisting(ids);
+        if (existing.isEmpty()) {
+            return existing;
         }
-       return false; // Post not found
+        List<String> names = hashtagRepository.findNamesByPostIds(existing);
+        postRepository.deleteWithChildren(existing);
+        changeEventOutbox.record(existing.stream().map(postId -> ChangeEvent.post(postId, ChangeEvent.Action.DELETED)).toList());
+        postCacheEvictor.evictDeletedAfterCommit(existing);
+        hashtagPostingLists.invalidateAfterCommit(names);
+        return existing;
     }
 }
 
@@ -0,0 +1,81 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.exception.ConflictException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Runs a unit of work in its own transaction and runs it again when it loses a write conflict: an optimistic lock
+// failure (@Version), a serialization failure or a deadlock. Retries are bounded and spaced with exponential backoff
+// and full jitter, so writers that collided don't collide again on the next attempt.
+// Published as post.write.conflicts, post.write.retries and post.write.retries.exhausted, tagged with the operation.
+@Component
+public class TransactionRetrier {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final MeterRegistry meterRegistry;
+
+    public TransactionRetrier(PlatformTransactionManager transactionManager,
+                              @Value("${app.retry.max-attempts:3}") int maxAttempts,
+                              @Value("${app.retry.initial-backoff:PT0.02S}") Duration initialBackoff,
+                              @Value("${app.retry.max-backoff:PT0.5S}") Duration maxBackoff,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+
+    // The action must be safe to run more than once: each attempt starts from a fresh read of the data.
+    public <T> T execute(String operation, TransactionCallback<T> action) {
+        // Joined to a caller's transaction, a failed attempt has already marked it rollback-only, so there is nothing to retry
+        int attempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : maxAttempts;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(action);
+            } catch (ConcurrencyFailureException e) {
+                counter("post.write.conflicts", operation).increment();
+                if (attempt >= attempts) {
+                    counter("post.write.retries.exhausted", operation).increment();
+                    throw new ConflictException(operation + " lost to a concurrent change after " + attempt + " attempt(s)", e);
+                }
+                counter("post.write.retries", operation).increment();
+                sleep(backoff(attempt), operation, e);
+            }
+        }
+    }
+
+    // Full jitter: uniformly random between 0 and min(maxBackoff, initialBackoff * 2^(attempt - 1))
+    private long backoff(int attempt) {
+        long cap = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private void sleep(long millis, String operation, ConcurrencyFailureException cause) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException(operation + " was interrupted while waiting to retry", cause);
+        }
+    }
+
+    private Counter counter(String name, String operation) {
+        return Counter.builder(name).tag("operation", operation).register(meterRegistry);
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.entity.Bio;
+import org.example.entity.ProfilePicture;
+import org.example.entity.User;
+import org.example.exception.InvalidRequestException;
+import org.example.repository.UserRepository;
+import org.example.response.UserProfile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// User profiles for feeds: every lookup, single or batched, is one statement joining user, bio and picture
+@Service
+@RequiredArgsConstructor
+public class UserService {
+
+    public static final int MAX_BATCH_SIZE = 100; // ids or usernames per batch lookup
+
+    private final UserRepository userRepository;
+
+    @Transactional(readOnly = true)
+    public UserProfile getProfile(Long id) {
+        List<UserProfile> profiles = getProfilesByIds(List.of(id));
+        return profiles.isEmpty() ? null : profiles.get(0);
+    }
+
+    @Transactional(readOnly = true)
+    public UserProfile getProfileByUsername(String username) {
+        List<UserProfile> profiles = getProfilesByUsernames(List.of(username));
+        return profiles.isEmpty() ? null : profiles.get(0);
+    }
+
+    // In the order asked for, skipping ids that don't exist
+    @Transactional(readOnly = true)
+    public List<UserProfile> getProfilesByIds(Collection<Long> ids) {
+        List<Long> distinctIds = batch(ids.stream().filter(Objects::nonNull).distinct().toList());
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, UserProfile> byId = userRepository.findProfilesByIds(distinctIds).stream()
+                .collect(Collectors.toMap(UserProfile::getId, Function.identity()));
+        return distinctIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // In the order asked for, skipping names that don't exist; a name taken twice resolves to the oldest account.
+    // Names are trimmed as createUser stores them.
+    @Transactional(readOnly = true)
+    public List<UserProfile> getProfilesByUsernames(Collection<String> usernames) {
+        List<String> names = batch(usernames.stream().filter(Objects::nonNull).map(String::trim)
+                .filter(name -> !name.isEmpty()).distinct().toList());
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        Map<String, UserProfile> byName = new HashMap<>();
+        userRepository.findProfilesByUsernames(names).forEach(profile -> byName.putIfAbsent(profile.getUsername(), profile));
+        return names.stream().map(byName::get).filter(Objects::nonNull).toList();
+    }
+
+    // Saves the user with its bio and picture (the associations cascade)
+    @Transactional
+    public User createUser(User user) {
+        // Copies: ids sent by the client must not reach persist()
+        User created = new User();
+        created.setUsername(user.getUsername() == null ? null : user.getUsername().trim());
+        if (user.getBio() != null) {
+            Bio bio = new Bio();
+            bio.setBioData(user.getBio().getBioData());
+            created.setBio(bio);
+        }
+        if (user.getProfilePicture() != null) {
+            ProfilePicture picture = new ProfilePicture();
+            picture.setImageUrl(user.getProfilePicture().getImageUrl());
+            created.setProfilePicture(picture);
+        }
+        return userRepository.save(created);
+    }
+
+    private static <T> List<T> batch(List<T> keys) {
+        if (keys.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("At most " + MAX_BATCH_SIZE + " users per batch, got " + keys.size());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.example.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseConcurrencyLimiterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final DatabaseConcurrencyLimiter limiter = new DatabaseConcurrencyLimiter(2, Duration.ofMillis(20), meterRegistry);
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void preHandle_ShouldRefuseRequestsPastTheLimitUntilOneCompletes() throws Exception {
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        MockHttpServletRequest second = new MockHttpServletRequest();
+        assertTrue(limiter.preHandle(first, response, null));
+        assertTrue(limiter.preHandle(second, response, null));
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.preHandle(new MockHttpServletRequest(), response, null));
+        assertEquals(1.0, meterRegistry.get("db.limiter.rejected").counter().count());
+
+        limiter.afterCompletion(first, response, null, null);
+        limiter.afterCompletion(first, response, null, null); // released once only
+        assertEquals(1.0, meterRegistry.get("db.limiter.available").gauge().value());
+        assertTrue(limiter.preHandle(new MockHttpServletRequest(), response, null));
+    }
+
+    @Test
+    void preHandle_ShouldReleaseWhenAnAsyncResponseStartsAndNotTakeAPermitForItsDispatch() throws Exception {
+        MockHttpServletRequest streaming = new MockHttpServletRequest();
+        assertTrue(limiter.preHandle(streaming, response, null));
+
+        limiter.afterConcurrentHandlingStarted(streaming, response, null);
+        streaming.setDispatcherType(DispatcherType.ASYNC);
+        assertTrue(limiter.preHandle(streaming, response, null));
+        limiter.afterCompletion(streaming, response, null, null);
+
+        assertEquals(2.0, meterRegistry.get("db.limiter.available").gauge().value());
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestMetricsFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SqlStatementRecorder recorder = new SqlStatementRecorder(0, Duration.ofSeconds(10), meterRegistry);
+
+    // A budget of 3 statements per request
+    private final RequestMetricsFilter filter = new RequestMetricsFilter(3, Duration.ofSeconds(10), meterRegistry);
+
+    @Test
+    void doFilter_ShouldCountTheStatementsOfEachRequestAgainstTheBudget() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/posts/7"), new MockHttpServletResponse(), runs("/posts/{id}", 2));
+        filter.doFilter(new MockHttpServletRequest("GET", "/posts/8"), new MockHttpServletResponse(), runs("/posts/{id}", 5));
+
+        assertEquals(2, meterRegistry.get("http.server.requests.queries").tag("uri", "/posts/{id}").summary().count());
+        assertEquals(7, meterRegistry.get("http.server.requests.queries").tag("uri", "/posts/{id}").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("http.server.requests.query.budget.exceeded").tag("uri", "/posts/{id}").counter().count());
+        assertEquals(7, meterRegistry.get("db.statements").tag("type", "select").timer().count());
+    }
+
+    @Test
+    void wrap_ShouldTimeStatementsOutsideOfRequestsAndBatchesAsOne() throws Exception {
+        try (Connection connection = recorder.wrap(DriverManager.getConnection("jdbc:h2:mem:recorder"));
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table item (id bigint)");
+            try (PreparedStatement insert = connection.prepareStatement("insert into item (id) values (?)")) {
+                for (long id = 1; id <= 3; id++) {
+                    insert.setLong(1, id);
+                    insert.addBatch();
+                }
+                assertEquals(3, insert.executeBatch().length);
+            }
+            assertEquals(connection, connection);
+        }
+
+        assertEquals(1, meterRegistry.get("db.statements").tag("type", "insert").timer().count());
+        assertEquals(1, meterRegistry.get("db.statements").tag("type", "other").timer().count()); // the DDL
+    }
+
+    // A handler for the pattern that runs the same query `statements` times
+    private FilterChain runs(String pattern, int statements) {
+        return (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+            try (Connection connection = recorder.wrap(DriverManager.getConnection("jdbc:h2:mem:requests"))) {
+                for (int i = 0; i < statements; i++) {
+                    try (PreparedStatement select = connection.prepareStatement("select ?")) {
+                        select.setInt(1, i);
+                        select.executeQuery().close();
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+}
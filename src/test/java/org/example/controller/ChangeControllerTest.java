@@ -0,0 +1,55 @@
+package org.example.controller;
+
+import org.example.entity.ChangeEvent;
+import org.example.response.ChangeFeedPage;
+import org.example.service.ChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ChangeController.class)
+class ChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ChangeFeed changeFeed;
+
+    @Test
+    void getChanges_ShouldAnswerWithTheEventsAfterTheCursor() throws Exception {
+        ChangeEvent event = ChangeEvent.comment(31L, 7L, ChangeEvent.Action.CREATED);
+        event.setId(400L);
+        event.setPosition(121L);
+        DeferredResult<ChangeFeedPage> result = new DeferredResult<>();
+        result.setResult(ChangeFeedPage.after(120L, List.of(event)));
+        // The wait is capped at 60 seconds
+        when(changeFeed.poll(eq(120L), eq(50), eq(Duration.ofSeconds(60)))).thenReturn(result);
+
+        MvcResult started = mockMvc.perform(get("/changes").param("since", "120").param("limit", "50").param("wait", "600"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events[0].entityType").value("COMMENT"))
+                .andExpect(jsonPath("$.events[0].entityId").value(31))
+                .andExpect(jsonPath("$.events[0].postId").value(7))
+                .andExpect(jsonPath("$.events[0].position").value(121))
+                .andExpect(jsonPath("$.nextCursor").value(121));
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.controller;
+
+import org.example.response.CursorPage;
+import org.example.response.PostSummary;
+import org.example.response.TrendingHashtag;
+import org.example.service.HashtagTrendingService;
+import org.example.service.PostService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(HashtagController.class)
+class HashtagControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private HashtagTrendingService hashtagTrendingService;
+
+    @MockBean
+    private PostService postService;
+
+    @Test
+    void getTrending_ShouldReturnRanking() throws Exception {
+        when(hashtagTrendingService.getTrending(eq(15), eq(2)))
+                .thenReturn(List.of(new TrendingHashtag("#java", 42), new TrendingHashtag("#spring", 17)));
+
+        mockMvc.perform(get("/hashtags/trending").param("minutes", "15").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("#java"))
+                .andExpect(jsonPath("$[0].uses").value(42))
+                .andExpect(jsonPath("$[1].name").value("#spring"));
+    }
+
+    @Test
+    void getPostsByHashtag_ShouldReturnPageOfTaggedPosts() throws Exception {
+        when(postService.getPostSummariesByHashtag(eq("#java"), eq(120L), eq(2)))
+                .thenReturn(new CursorPage<>(List.of(new PostSummary(119L, 0L, "Latest", 3), new PostSummary(80L, 1L, "Older", 0)), 80L));
+
+        mockMvc.perform(get("/hashtags/{name}/posts", "#java").param("after", "120").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(119))
+                .andExpect(jsonPath("$.items[1].title").value("Older"))
+                .andExpect(jsonPath("$.nextCursor").value(80));
+    }
+}
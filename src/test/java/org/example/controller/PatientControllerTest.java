@@ -0,0 +1,77 @@
+package org.example.controller;
+
+import org.example.exception.InvalidRequestException;
+import org.example.response.CursorPage;
+import org.example.response.PatientView;
+import org.example.service.PatientService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PatientController.class)
+class PatientControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PatientService patientService;
+
+    private static PatientView patient(long id, Long recordId) {
+        return new PatientView(id, "Jane", "Doe", "jane@example.com", recordId, recordId == null ? null : "Flu", recordId == null ? null : "Rest");
+    }
+
+    @Test
+    void getPatients_ShouldReturnPageWithNextCursor() throws Exception {
+        when(patientService.getPatients(eq(10L), eq(1))).thenReturn(new CursorPage<>(List.of(patient(11L, 3L)), 11L));
+
+        mockMvc.perform(get("/patients").param("after", "10").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(11))
+                .andExpect(jsonPath("$.items[0].medicalRecord.diagnosis").value("Flu"))
+                .andExpect(jsonPath("$.nextCursor").value(11));
+    }
+
+    @Test
+    void getPatient_ShouldReturnNotFoundForUnknownId() throws Exception {
+        when(patientService.getPatient(eq(1L))).thenReturn(patient(1L, null));
+
+        mockMvc.perform(get("/patients/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.medicalRecord").isEmpty());
+        mockMvc.perform(get("/patients/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getPatientsByEmail_ShouldPassTheAddress() throws Exception {
+        when(patientService.getPatientsByEmail(eq("jane@example.com"))).thenReturn(List.of(patient(1L, 3L)));
+
+        mockMvc.perform(get("/patients/by-email").param("email", "jane@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].email").value("jane@example.com"));
+    }
+
+    @Test
+    void getPatientsByIds_ShouldReturnBadRequestForOversizedBatch() throws Exception {
+        when(patientService.getPatientsByIds(eq(List.of(3L, 1L)))).thenReturn(List.of(patient(3L, null), patient(1L, 2L)));
+        when(patientService.getPatientsByIds(eq(List.of(4L)))).thenThrow(new InvalidRequestException("At most 100 ids per batch"));
+
+        mockMvc.perform(get("/patients/batch").param("ids", "3,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[1].id").value(1));
+        mockMvc.perform(get("/patients/batch").param("ids", "4"))
+                .andExpect(status().isBadRequest());
+    }
+}
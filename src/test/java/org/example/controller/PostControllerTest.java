@@ -4,28 +4,56 @@ import org.example.controller.PostController;
 import org.example.entity.Comment;
 import org.example.entity.Hashtag;
 import org.example.entity.Post;
+import org.example.exception.InvalidRequestException;
+import org.example.request.PostPatch;
 import org.example.request.PostRequest;
+import org.example.response.CommentView;
+import org.example.response.CursorPage;
+import org.example.response.PostDetail;
+import org.example.response.PostSearchHit;
+import org.example.response.PostSummary;
+import org.example.response.PostVersion;
+import org.example.service.CommentWriteBehindQueue;
+import org.example.service.PostIngestService;
+import org.example.service.PostSearchService;
 import org.example.service.PostService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(PostController.class)
@@ -34,9 +62,18 @@ class PostControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @MockBean
+    private CommentWriteBehindQueue commentWriteBehindQueue;
+
     @MockBean
     private PostService postService;
 
+    @MockBean
+    private PostIngestService postIngestService;
+
+    @MockBean
+    private PostSearchService postSearchService;
+
     private Post post;
     private PostRequest postRequest;
 
@@ -75,6 +112,179 @@ class PostControllerTest {
                 .andExpect(jsonPath("$.id").value(1L));
     }
 
+    @Test
+    void getPostById_ShouldSendValidatorsOfTheBody() throws Exception {
+        Instant updatedAt = Instant.parse("2024-03-01T10:15:30Z");
+        when(postService.getPostDetail(eq(1L))).thenReturn(new PostDetail(1L, 3L, "Test Post", null, 2, updatedAt));
+
+        mockMvc.perform(get("/posts/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, "\"3.2\""))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, updatedAt.toEpochMilli()))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.title").value("Test Post"));
+        verify(postService, never()).getPostVersion(any());
+    }
+
+    @Test
+    void getPostById_ShouldAnswerNotModifiedWithoutReadingThePost() throws Exception {
+        Instant updatedAt = Instant.parse("2024-03-01T10:15:30Z");
+        when(postService.getPostVersion(eq(1L))).thenReturn(new PostVersion(3L, 2, updatedAt));
+        when(postService.getPostDetail(eq(1L))).thenReturn(new PostDetail(1L, 3L, "Test Post", null, 2, updatedAt));
+
+        mockMvc.perform(get("/posts/1").header(HttpHeaders.IF_NONE_MATCH, "\"3.2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, "\"3.2\""))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/posts/1").header(HttpHeaders.IF_MODIFIED_SINCE, "Fri, 01 Mar 2024 10:15:30 GMT"))
+                .andExpect(status().isNotModified());
+        verify(postService, never()).getPostDetail(any());
+
+        // A stale copy gets the post again
+        mockMvc.perform(get("/posts/1").header(HttpHeaders.IF_NONE_MATCH, "\"3.1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, "\"3.2\""))
+                .andExpect(jsonPath("$.commentCount").value(2));
+        mockMvc.perform(get("/posts/2").header(HttpHeaders.IF_NONE_MATCH, "\"3.2\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void patchPost_ShouldAnswerNoContentWithTheNewValidators() throws Exception {
+        Instant updatedAt = Instant.parse("2024-03-01T10:15:30Z");
+        when(postService.patchPost(eq(1L), any(PostPatch.class))).thenReturn(new PostVersion(4L, 2, updatedAt));
+
+        mockMvc.perform(patch("/posts/1").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"version\":3,\"hashtags\":[{\"name\":\"#dawn\"}]}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, "\"4.2\""))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, updatedAt.toEpochMilli()));
+        verify(postService).patchPost(eq(1L), argThat(patch -> patch.getVersion() == 3L
+                && patch.getTitle() == null && patch.getHashtags().size() == 1));
+
+        mockMvc.perform(patch("/posts/2").contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"New\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deletePosts_ShouldListDeletedAndMissingIds() throws Exception {
+        when(postService.deletePosts(eq(List.of(3L, 1L, 7L)))).thenReturn(List.of(1L, 3L));
+
+        mockMvc.perform(delete("/posts/delete").param("ids", "3,1,7,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted[0]").value(1L))
+                .andExpect(jsonPath("$.deleted[1]").value(3L))
+                .andExpect(jsonPath("$.notFound.length()").value(1))
+                .andExpect(jsonPath("$.notFound[0]").value(7L));
+    }
+
+    @Test
+    void getAllPosts_ShouldReturnPageWithNextCursor() throws Exception {
+        PostDetail detail = new PostDetail(1L, 0L, "Test Post", null, 1, null);
+        detail.getComments().add(new CommentView(1L, 5L, "Test Comment"));
+        when(postService.getPostDetails(eq(0L), eq(1))).thenReturn(new CursorPage<>(List.of(detail), 1L));
+
+        mockMvc.perform(get("/posts").param("after", "0").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Test Post"))
+                .andExpect(jsonPath("$.items[0].comments[0].text").value("Test Comment"))
+                .andExpect(jsonPath("$.items[0].comments[0].postId").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value(1L))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=5"));
+    }
+
+    @Test
+    void getComments_ShouldReturnPageOrNotFound() throws Exception {
+        when(postService.getComments(eq(1L), eq(5L), eq(2))).thenReturn(new CursorPage<>(List.of(new CommentView(1L, 6L, "Next")), null));
+
+        mockMvc.perform(get("/posts/1/comments").param("after", "5").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(6))
+                .andExpect(jsonPath("$.items[0].text").value("Next"));
+        mockMvc.perform(get("/posts/2/comments"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void appendComments_ShouldReturnSavedComments() throws Exception {
+        when(postService.appendComments(eq(1L), any())).thenReturn(List.of(new CommentView(1L, 7L, "First"), new CommentView(1L, 8L, "Second")));
+
+        mockMvc.perform(post("/posts/1/comments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"text\":\"First\"},{\"text\":\"Second\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].id").value(8));
+        when(postService.appendComments(eq(2L), any())).thenReturn(null);
+        mockMvc.perform(post("/posts/2/comments").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void appendComments_ShouldQueueOrRefuseInWriteBehindMode() throws Exception {
+        when(commentWriteBehindQueue.isEnabled()).thenReturn(true);
+        when(commentWriteBehindQueue.enqueue(eq(1L), any())).thenReturn(true, false);
+
+        mockMvc.perform(post("/posts/1/comments").contentType(MediaType.APPLICATION_JSON).content("[{\"text\":\"Queued\"}]"))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(post("/posts/1/comments").contentType(MediaType.APPLICATION_JSON).content("[{\"text\":\"Refused\"}]"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.errorCode").value("TOO_MANY_REQUESTS"));
+    }
+
+    @Test
+    void getPostSummaries_ShouldReturnSummaryPage() throws Exception {
+        when(postService.getPostSummaries(eq(null), eq(null))).thenReturn(new CursorPage<>(List.of(new PostSummary(1L, 0L, "Test Post", 3)), null));
+
+        mockMvc.perform(get("/posts/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].commentCount").value(3))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void searchPosts_ShouldPassQueryAndTags() throws Exception {
+        when(postSearchService.search(eq("spring boot"), eq(List.of("#java", "#jpa")), eq(20L), eq(10)))
+                .thenReturn(new CursorPage<>(List.of(new PostSearchHit(1L, 0L, "Test Post", 0.6f)), 30L));
+
+        mockMvc.perform(get("/posts/search").param("q", "spring boot").param("tag", "#java", "#jpa").param("after", "20").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(30));
+    }
+
+    @Test
+    void searchPosts_ShouldReturnBadRequestWithoutQueryOrTags() throws Exception {
+        when(postSearchService.search(eq(null), eq(null), eq(null), eq(null))).thenThrow(new InvalidRequestException("Search needs a query"));
+
+        mockMvc.perform(get("/posts/search"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"));
+    }
+
+    @Test
+    void streamAllPosts_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        Post second = new Post();
+        second.setId(2L);
+        second.setTitle("Second Post");
+        doAnswer(invocation -> {
+            Consumer<Post> consumer = invocation.getArgument(0);
+            consumer.accept(post);
+            consumer.accept(second);
+            return null;
+        }).when(postService).streamAllPosts(any());
+
+        MvcResult result = mockMvc.perform(get("/posts/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains("\"title\":\"Second Post\""));
+    }
+
 //    @Test
 //    void helloEndpoint_ShouldReturnHelloWorldMessage() throws Exception {
 //        // Act: Perform a GET request to /posts/hello
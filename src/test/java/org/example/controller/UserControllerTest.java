@@ -0,0 +1,70 @@
+package org.example.controller;
+
+import org.example.response.UserProfile;
+import org.example.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(UserController.class)
+class UserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserService userService;
+
+    private static UserProfile profile(long id, String username) {
+        return new UserProfile(id, username, "Hello", "https://img.example.com/" + id + ".png");
+    }
+
+    @Test
+    void getProfile_ShouldReturnNotFoundForUnknownId() throws Exception {
+        when(userService.getProfile(eq(1L))).thenReturn(profile(1L, "alice"));
+
+        mockMvc.perform(get("/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("alice"))
+                .andExpect(jsonPath("$.imageUrl").value("https://img.example.com/1.png"));
+        mockMvc.perform(get("/users/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getProfileByUsername_ShouldPassTheName() throws Exception {
+        when(userService.getProfileByUsername(eq("alice"))).thenReturn(profile(1L, "alice"));
+
+        mockMvc.perform(get("/users/by-username/{username}", "alice"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    void getProfiles_ShouldTakeEitherIdsOrUsernames() throws Exception {
+        when(userService.getProfilesByIds(eq(List.of(3L, 1L)))).thenReturn(List.of(profile(3L, "carol"), profile(1L, "alice")));
+        when(userService.getProfilesByUsernames(eq(List.of("bob")))).thenReturn(List.of(profile(2L, "bob")));
+
+        mockMvc.perform(get("/users/batch").param("ids", "3,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[1].id").value(1));
+        mockMvc.perform(get("/users/batch").param("usernames", "bob"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].username").value("bob"));
+        mockMvc.perform(get("/users/batch"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users/batch").param("ids", "1").param("usernames", "bob"))
+                .andExpect(status().isBadRequest());
+    }
+}
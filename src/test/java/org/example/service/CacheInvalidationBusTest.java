@@ -0,0 +1,89 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.repository.HashtagRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CacheInvalidationBusTest {
+
+    private static final ObjectProvider<MeterRegistry> NO_REGISTRY = new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class);
+
+    private CacheInvalidationBus nodeA;
+
+    private CacheInvalidationBus nodeB;
+
+    @BeforeEach
+    void setUp() {
+        LoopbackCacheInvalidationTransport.Hub hub = new LoopbackCacheInvalidationTransport.Hub();
+        // A delay the test never reaches: it flushes itself
+        nodeA = new CacheInvalidationBus(new LoopbackCacheInvalidationTransport(hub), Duration.ofHours(1), NO_REGISTRY);
+        nodeB = new CacheInvalidationBus(new LoopbackCacheInvalidationTransport(hub), Duration.ofHours(1), NO_REGISTRY);
+        nodeA.start();
+        nodeB.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        nodeA.stop();
+        nodeB.stop();
+    }
+
+    @Test
+    void flush_ShouldSendOneCoalescedMessageToTheOtherNodesOnly() {
+        List<CacheInvalidation> receivedByA = new CopyOnWriteArrayList<>();
+        List<CacheInvalidation> receivedByB = new CopyOnWriteArrayList<>();
+        nodeA.subscribe(receivedByA::add);
+        nodeB.subscribe(receivedByB::add);
+
+        nodeA.publish(CacheInvalidation.posts(List.of(1L, 2L), false));
+        nodeA.publish(CacheInvalidation.posts(List.of(2L), true));
+        nodeA.publish(CacheInvalidation.hashtags(List.of("#a", "#b")));
+        nodeA.publish(CacheInvalidation.hashtags(List.of("#a")));
+        nodeA.flush();
+
+        assertEquals(1, receivedByB.size());
+        CacheInvalidation received = receivedByB.get(0);
+        assertEquals(Set.of(1L, 2L), received.getPostIds());
+        assertEquals(Set.of("#a", "#b"), received.getHashtagNames());
+        assertTrue(received.isAllComments());
+        assertTrue(receivedByA.isEmpty());
+        assertNull(nodeA.flush()); // nothing left
+    }
+
+    @Test
+    void invalidateAfterCommit_ShouldDropThePostingListOnTheOtherNodes() {
+        HashtagRepository hashtagRepository = mock(HashtagRepository.class);
+        when(hashtagRepository.findPostIds("#hot", Long.MAX_VALUE, 2)).thenReturn(List.of(9L, 7L));
+        when(hashtagRepository.findPostIds("#hot", Long.MAX_VALUE, 5)).thenReturn(List.of(9L, 7L));
+        HashtagPostingLists listsOfA = new HashtagPostingLists(hashtagRepository, 4, 1000, NO_REGISTRY, provider(nodeA));
+        HashtagPostingLists listsOfB = new HashtagPostingLists(hashtagRepository, 4, 1000, NO_REGISTRY, provider(nodeB));
+
+        listsOfB.findPostIds("#hot", null, 2);
+        listsOfB.findPostIds("#hot", null, 2); // builds B's list
+        listsOfB.findPostIds("#hot", null, 2);
+        verify(hashtagRepository, times(1)).findPostIds("#hot", Long.MAX_VALUE, 5);
+
+        listsOfA.invalidateAfterCommit(List.of("#hot")); // a write on A, outside of a transaction
+        nodeA.flush();
+
+        assertEquals(List.of(9L, 7L), listsOfB.findPostIds("#hot", null, 2)); // rebuilt
+        verify(hashtagRepository, times(2)).findPostIds("#hot", Long.MAX_VALUE, 5);
+    }
+
+    private static ObjectProvider<CacheInvalidationBus> provider(CacheInvalidationBus bus) {
+        return new StaticListableBeanFactory(Map.of("cacheInvalidationBus", bus)).getBeanProvider(CacheInvalidationBus.class);
+    }
+}
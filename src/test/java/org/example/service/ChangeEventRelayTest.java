@@ -0,0 +1,175 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.entity.ChangeEvent;
+import org.example.entity.Comment;
+import org.example.entity.Hashtag;
+import org.example.entity.Post;
+import org.example.repository.ChangeEventRepository;
+import org.example.request.PostPatch;
+import org.example.response.ChangeFeedPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        // PostgreSQL compatibility mode, for the native upserts (INSERT ... ON CONFLICT, nextval)
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostService.class, HashtagService.class, PostCacheEvictor.class, TransactionRetrier.class, HashtagTrendingService.class,
+        HashtagPostingLists.class, ChangeEventOutbox.class, ChangeFeed.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Events are relayed after their write commits, so the test must really commit
+class ChangeEventRelayTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private ChangeEventRepository changeEventRepository;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private FlakySink sink;
+
+    private ChangeEventRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        sink = new FlakySink();
+        // Not enabled: no relay thread, the test runs the batches itself
+        relay = new ChangeEventRelay(changeEventRepository, sink, changeFeed, transactionManager, false, 3,
+                Duration.ofSeconds(1), Duration.ofDays(7), meterRegistry);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from change_event");
+        jdbcTemplate.update("delete from post_hashtag");
+        jdbcTemplate.update("delete from comment");
+        jdbcTemplate.update("delete from post");
+        jdbcTemplate.update("delete from hashtag");
+    }
+
+    @Test
+    void relayBatch_ShouldPublishEveryCommittedWriteInOrder() {
+        Long postId = postService.createPostWithCommentsAndHashtags(post("First"), new ArrayList<>(List.of(new Comment("Hi"))),
+                List.of(hashtag("#a"), hashtag("#b"))).getId();
+        List<Long> commentIds = postService.appendComments(postId, List.of(new Comment("One"), new Comment("Two"))).stream()
+                .map(comment -> comment.getId()).toList();
+        PostPatch patch = new PostPatch();
+        patch.setHashtags(List.of(hashtag("#b"), hashtag("#c")));
+        postService.patchPost(postId, patch);
+        postService.patchPost(postId, patch); // changes nothing, records nothing
+        postService.deletePost(postId);
+
+        // A write that rolls back leaves no event behind
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            postService.createPostWithCommentsAndHashtags(post("Rolled back"), new ArrayList<>(), List.of());
+            status.setRollbackOnly();
+        });
+
+        while (relay.relayBatch() > 0) {
+            // batches of 3
+        }
+
+        assertEquals(List.of("POST CREATED", "HASHTAG ADDED", "HASHTAG ADDED", "COMMENT CREATED", "COMMENT CREATED",
+                        "POST UPDATED", "HASHTAG ADDED", "HASHTAG REMOVED", "POST DELETED"),
+                sink.published.stream().map(event -> event.getEntityType() + " " + event.getAction()).toList());
+        assertEquals(commentIds, sink.published.subList(3, 5).stream().map(ChangeEvent::getEntityId).toList());
+        assertTrue(sink.published.stream().allMatch(event -> event.getPostId().equals(postId)));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), sink.published.stream().map(ChangeEvent::getPosition).toList());
+
+        // The feed serves the same events after a cursor, without waiting when there are some
+        ChangeFeedPage page = (ChangeFeedPage) changeFeed.poll(6, 2, Duration.ofSeconds(5)).getResult();
+        assertEquals(List.of(7L, 8L), page.getEvents().stream().map(ChangeEvent::getPosition).toList());
+        assertEquals(8L, page.getNextCursor());
+        assertFalse(changeFeed.hasWaiters());
+    }
+
+    @Test
+    void relayBatch_ShouldPublishAgainWhatTheSinkRefused() {
+        postService.createPostWithCommentsAndHashtags(post("Refused"), new ArrayList<>(), List.of());
+        sink.failing = true;
+
+        assertThrows(RuntimeException.class, () -> relay.relayBatch());
+        assertTrue(changeEventRepository.findAfter(0, 10).isEmpty()); // still unpublished
+
+        sink.failing = false;
+        assertEquals(1, relay.relayBatch());
+        assertEquals(0, relay.relayBatch());
+        assertEquals(1L, sink.published.get(0).getPosition());
+    }
+
+    @Test
+    void poll_ShouldWaitForTheNextPublishedBatch() {
+        DeferredResult<ChangeFeedPage> result = changeFeed.poll(0, null, Duration.ofSeconds(30));
+        assertFalse(result.hasResult());
+        assertTrue(changeFeed.hasWaiters());
+
+        Long postId = postService.createPostWithCommentsAndHashtags(post("Awaited"), new ArrayList<>(), List.of()).getId();
+        relay.relayBatch();
+
+        ChangeFeedPage page = (ChangeFeedPage) result.getResult();
+        assertEquals(List.of(postId), page.getEvents().stream().map(ChangeEvent::getEntityId).toList());
+        assertEquals(1L, page.getNextCursor());
+        assertFalse(changeFeed.hasWaiters());
+    }
+
+    private static Post post(String title) {
+        Post post = new Post();
+        post.setTitle(title);
+        post.setContent("Content of " + title);
+        return post;
+    }
+
+    private static Hashtag hashtag(String name) {
+        Hashtag hashtag = new Hashtag();
+        hashtag.setName(name);
+        return hashtag;
+    }
+
+    private static final class FlakySink implements ChangeEventSink {
+
+        final List<ChangeEvent> published = new ArrayList<>();
+
+        boolean failing;
+
+        @Override
+        public void publish(List<ChangeEvent> events) throws IOException {
+            if (failing) {
+                throw new IOException("Sink unavailable");
+            }
+            published.addAll(events);
+        }
+    }
+}
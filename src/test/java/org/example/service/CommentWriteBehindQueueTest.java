@@ -0,0 +1,130 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.entity.Comment;
+import org.example.response.CommentView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CommentWriteBehindQueueTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PostService postService = mock(PostService.class);
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private CommentWriteBehindQueue queue;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        queue.stop();
+    }
+
+    @Test
+    void enqueue_ShouldWriteAFullBatchInOneTransaction() {
+        queue = start(100, 4, Duration.ofSeconds(30));
+        when(postService.appendComments(any(), anyList())).thenReturn(List.of());
+
+        assertTrue(queue.enqueue(2L, comments(2)));
+        assertTrue(queue.enqueue(1L, comments(2))); // fills the batch: written long before the 30s delay
+
+        verify(postService, timeout(5000)).appendComments(eq(2L), argThat(list -> list.size() == 2));
+        verify(postService, timeout(5000)).appendComments(eq(1L), argThat(list -> list.size() == 2));
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    void enqueue_ShouldWriteAPartialBatchAfterTheDelay() {
+        queue = start(100, 500, Duration.ofMillis(20));
+        when(postService.appendComments(any(), anyList())).thenReturn(List.of());
+
+        assertTrue(queue.enqueue(1L, comments(1)));
+
+        verify(postService, timeout(5000)).appendComments(eq(1L), anyList());
+    }
+
+    @Test
+    void enqueue_ShouldRefuseRequestsThatDontFit() throws InterruptedException {
+        queue = start(3, 1, Duration.ZERO);
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(postService.appendComments(any(), anyList())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return List.<CommentView>of();
+        });
+        assertTrue(queue.enqueue(1L, comments(1)));
+        flushing.await(); // the flusher holds that comment, the queue is empty again
+
+        assertTrue(queue.enqueue(1L, comments(2)));
+        assertFalse(queue.enqueue(1L, comments(2))); // all or nothing: only one more would fit
+        assertTrue(queue.enqueue(1L, comments(1)));
+        assertFalse(queue.enqueue(1L, comments(1)));
+        release.countDown();
+
+        assertEquals(3, meterRegistry.counter("comment.write-behind.rejected").count());
+        assertEquals(4, meterRegistry.counter("comment.write-behind.accepted").count());
+    }
+
+    @Test
+    void stop_ShouldDrainTheQueueAndRefuseNewComments() throws InterruptedException {
+        queue = start(100, 500, Duration.ofSeconds(30));
+        when(postService.appendComments(eq(1L), anyList())).thenReturn(List.of());
+        when(postService.appendComments(eq(2L), anyList())).thenReturn(null); // no such post
+
+        queue.enqueue(1L, comments(3));
+        queue.enqueue(2L, comments(2));
+        queue.stop();
+
+        verify(postService).appendComments(eq(1L), argThat(list -> list.size() == 3));
+        verify(postService).appendComments(eq(2L), argThat(list -> list.size() == 2));
+        assertEquals(2, meterRegistry.counter("comment.write-behind.dropped").count());
+        assertFalse(queue.enqueue(1L, comments(1)));
+    }
+
+    @Test
+    void flush_ShouldKeepTheOtherPostsWhenOneIsRefused() throws InterruptedException {
+        queue = start(100, 500, Duration.ofSeconds(30));
+        when(postService.appendComments(eq(1L), anyList())).thenReturn(List.of());
+        when(postService.appendComments(eq(2L), anyList())).thenThrow(new IllegalStateException("refused"));
+
+        queue.enqueue(1L, comments(1));
+        queue.enqueue(2L, comments(2));
+        queue.stop();
+
+        // Once in the failed batch, once on its own
+        verify(postService, times(2)).appendComments(eq(1L), anyList());
+        verify(transactionManager, times(3)).getTransaction(any());
+        assertEquals(2, meterRegistry.counter("comment.write-behind.dropped").count());
+    }
+
+    @SuppressWarnings("unchecked")
+    private CommentWriteBehindQueue start(int capacity, int batchSize, Duration maxDelay) {
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(meterRegistry);
+        CommentWriteBehindQueue started = new CommentWriteBehindQueue(postService, transactionManager, true,
+                capacity, batchSize, maxDelay, Duration.ofSeconds(10), provider);
+        started.start();
+        return started;
+    }
+
+    private static List<Comment> comments(int count) {
+        return IntStream.range(0, count).mapToObj(i -> new Comment("c" + i)).collect(Collectors.toList());
+    }
+}
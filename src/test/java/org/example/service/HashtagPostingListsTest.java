@@ -0,0 +1,65 @@
+package org.example.service;
+
+import org.example.repository.HashtagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HashtagPostingListsTest {
+
+    private HashtagRepository hashtagRepository;
+
+    private HashtagPostingLists postingLists;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        hashtagRepository = mock(HashtagRepository.class);
+        // At most 4 ids per list
+        postingLists = new HashtagPostingLists(hashtagRepository, 4, 1000, mock(ObjectProvider.class), mock(ObjectProvider.class));
+    }
+
+    @Test
+    void findPostIds_ShouldServeRepeatedReadsFromMemory() {
+        when(hashtagRepository.findPostIds("#hot", Long.MAX_VALUE, 2)).thenReturn(List.of(9L, 7L));
+        when(hashtagRepository.findPostIds("#hot", Long.MAX_VALUE, 5)).thenReturn(List.of(9L, 7L, 5L));
+
+        assertEquals(List.of(9L, 7L), postingLists.findPostIds("#hot", null, 2)); // first read: index
+        assertEquals(List.of(9L, 7L), postingLists.findPostIds("#hot", null, 2)); // second: builds the list
+        assertEquals(List.of(5L), postingLists.findPostIds("#hot", 7L, 2));
+        assertEquals(List.of(7L, 5L), postingLists.findPostIds("#hot", 8L, 2)); // a cursor that isn't in the list
+        assertEquals(List.of(), postingLists.findPostIds("#hot", 5L, 2));
+
+        verify(hashtagRepository, times(1)).findPostIds("#hot", Long.MAX_VALUE, 2);
+        verify(hashtagRepository, times(1)).findPostIds("#hot", Long.MAX_VALUE, 5);
+        verifyNoMoreInteractions(hashtagRepository);
+    }
+
+    @Test
+    void findPostIds_ShouldReadPastTheEndOfATruncatedListFromTheIndex() {
+        when(hashtagRepository.findPostIds("#big", Long.MAX_VALUE, 5)).thenReturn(List.of(10L, 9L, 8L, 7L, 6L));
+        when(hashtagRepository.findPostIds("#big", 8L, 3)).thenReturn(List.of(7L, 6L, 5L));
+        postingLists.findPostIds("#big", null, 5); // served by the mock above; the list is built on the next read
+
+        assertEquals(List.of(10L, 9L), postingLists.findPostIds("#big", null, 2));
+        assertEquals(List.of(7L, 6L, 5L), postingLists.findPostIds("#big", 8L, 3));
+        verify(hashtagRepository).findPostIds("#big", 8L, 3);
+    }
+
+    @Test
+    void invalidateAfterCommit_ShouldRebuildTheListOnTheNextRead() {
+        when(hashtagRepository.findPostIds("#hot", Long.MAX_VALUE, 5)).thenReturn(List.of(3L), List.of(4L, 3L));
+        postingLists.findPostIds("#hot", null, 5);
+        postingLists.findPostIds("#hot", null, 5);
+
+        postingLists.invalidateAfterCommit(List.of("#hot")); // no transaction: drops it right away
+
+        assertEquals(List.of(4L, 3L), postingLists.findPostIds("#hot", null, 5));
+        verify(hashtagRepository, times(3)).findPostIds("#hot", Long.MAX_VALUE, 5);
+    }
+}
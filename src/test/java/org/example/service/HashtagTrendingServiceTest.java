@@ -0,0 +1,165 @@
+package org.example.service;
+
+import org.example.repository.HashtagRepository;
+import org.example.repository.HashtagTrendRepository;
+import org.example.response.TrendingHashtag;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        // PostgreSQL compatibility mode, for the native upserts (INSERT ... ON CONFLICT, nextval)
+        "spring.datasource.url=jdbc:h2:mem:trending;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(HashtagService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Counts are taken after commit, so the test must really commit
+class HashtagTrendingServiceTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(60);
+
+    @Autowired
+    private HashtagTrendRepository hashtagTrendRepository;
+
+    @Autowired
+    private HashtagRepository hashtagRepository;
+
+    @Autowired
+    private HashtagService hashtagService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MutableClock clock;
+
+    private HashtagTrendingService trendingService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T12:00:00Z"));
+        trendingService = newService();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        hashtagTrendRepository.deleteAllInBatch();
+        hashtagRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void getTrending_ShouldRankUsesWithinTheWindow() {
+        trendingService.record(List.of("#a", "#b"));
+        trendingService.record(List.of("#a"));
+        clock.advance(Duration.ofMinutes(5));
+        trendingService.record(List.of("#b", "#c"));
+        trendingService.record(List.of("#b"));
+
+        assertEquals("#b=2,#c=1", format(trendingService.getTrending(3, null)));
+        assertEquals("#b=3,#a=2,#c=1", format(trendingService.getTrending(null, null)));
+        assertEquals("#b=3", format(trendingService.getTrending(null, 1)));
+
+        clock.advance(WINDOW);
+        assertTrue(trendingService.getTrending(null, null).isEmpty());
+    }
+
+    @Test
+    void recordAfterCommit_ShouldIgnoreRolledBackTransactions() {
+        transactionTemplate.executeWithoutResult(status -> trendingService.recordAfterCommit(List.of("#kept")));
+        transactionTemplate.executeWithoutResult(status -> {
+            trendingService.recordAfterCommit(List.of("#dropped"));
+            status.setRollbackOnly();
+        });
+
+        assertEquals("#kept=1", format(trendingService.getTrending(null, null)));
+    }
+
+    @Test
+    void flush_ShouldWriteEachUseOnceAndSurviveARestart() {
+        trendingService.record(List.of("#a", "#b"));
+        trendingService.record(List.of("#a"));
+        trendingService.flush();
+        trendingService.record(List.of("#a"));
+        trendingService.flush();
+        trendingService.flush(); // nothing new
+
+        assertEquals(List.of(3L, 1L), jdbcTemplate.queryForList(
+                "select t.uses from hashtag_trend t join hashtag h on h.id = t.hashtag_id order by h.name", Long.class));
+
+        HashtagTrendingService restarted = newService();
+        restarted.load();
+        assertEquals("#a=3,#b=1", format(restarted.getTrending(null, null)));
+        restarted.flush(); // reloaded counts are already in the table
+        assertEquals(4L, jdbcTemplate.queryForObject("select sum(uses) from hashtag_trend", Long.class));
+    }
+
+    @Test
+    void flush_ShouldDeleteRowsPastTheRetention() {
+        trendingService.record(List.of("#old"));
+        trendingService.flush();
+        clock.advance(Duration.ofDays(8));
+        trendingService.record(List.of("#new"));
+        trendingService.flush();
+
+        assertEquals(List.of("#new"), jdbcTemplate.queryForList(
+                "select h.name from hashtag_trend t join hashtag h on h.id = t.hashtag_id", String.class));
+    }
+
+    private HashtagTrendingService newService() {
+        // Rankings are not reused, so every call sees the latest counts
+        return new HashtagTrendingService(hashtagTrendRepository, hashtagService, transactionTemplate,
+                WINDOW, Duration.ofDays(7), Duration.ZERO, clock);
+    }
+
+    private static String format(List<TrendingHashtag> trending) {
+        return trending.stream().map(t -> t.getName() + "=" + t.getUses()).collect(Collectors.joining(","));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.repository.CacheInvalidationEntryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        // PostgreSQL compatibility mode, for nextval
+        "spring.datasource.url=jdbc:h2:mem:invalidation;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // nodes only see each other's committed rows
+class JdbcCacheInvalidationTransportTest {
+
+    @Autowired
+    private CacheInvalidationEntryRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from cache_invalidation");
+    }
+
+    @Test
+    void poll_ShouldDeliverAnotherNodesInvalidationOnce() {
+        JdbcCacheInvalidationTransport nodeA = node();
+        JdbcCacheInvalidationTransport nodeB = node();
+        List<CacheInvalidation> receivedByA = new ArrayList<>();
+        List<CacheInvalidation> receivedByB = new ArrayList<>();
+        nodeA.start(receivedByA::add);
+        nodeB.start(receivedByB::add);
+
+        nodeA.send(new CacheInvalidation(List.of(1L, 2L), List.of("#a"), true));
+
+        assertNull(nodeA.poll()); // not its own
+        CacheInvalidation received = nodeB.poll();
+        assertEquals(Set.of(1L, 2L), received.getPostIds());
+        assertEquals(Set.of("#a"), received.getHashtagNames());
+        assertTrue(received.isAllComments());
+        assertNull(nodeB.poll()); // still in the window, but applied already
+        assertEquals(List.of(received), receivedByB);
+        assertTrue(receivedByA.isEmpty());
+
+        // A node started later doesn't replay what was sent before
+        JdbcCacheInvalidationTransport nodeC = node();
+        nodeC.start(invalidation -> fail("Replayed " + invalidation.getPostIds()));
+        assertNull(nodeC.poll());
+    }
+
+    // Polled by the test: no thread
+    private JdbcCacheInvalidationTransport node() {
+        return new JdbcCacheInvalidationTransport(repository, Duration.ZERO, Duration.ofSeconds(5), Duration.ofMinutes(10), meterRegistry);
+    }
+}
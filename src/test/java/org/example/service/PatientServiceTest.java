@@ -0,0 +1,112 @@
+package org.example.service;
+
+import org.example.entity.MedicalRecord;
+import org.example.entity.Patient;
+import org.example.exception.InvalidRequestException;
+import org.example.response.CursorPage;
+import org.example.response.PatientView;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(PatientService.class)
+class PatientServiceTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            Patient patient = new Patient("First" + i, "Last" + i, i < 2 ? "shared@example.com" : "patient" + i + "@example.com");
+            if (i != 3) {
+                patient.setMedicalRecord(new MedicalRecord("Diagnosis " + i, "Plan " + i));
+            }
+            ids.add(patientService.createPatient(patient).getId());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics = testEntityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getPatients_ShouldWalkPagesWithRecordsInOneStatementEach() {
+        List<Long> seen = new ArrayList<>();
+        Long cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<PatientView> page = patientService.getPatients(cursor, 2);
+            page.getItems().forEach(patient -> seen.add(patient.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(ids, seen.stream().filter(ids::contains).toList());
+        assertEquals(pages, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getPatient_ShouldIncludeTheMedicalRecordWhenThereIsOne() {
+        PatientView withRecord = patientService.getPatient(ids.get(0));
+        PatientView withoutRecord = patientService.getPatient(ids.get(3));
+
+        assertEquals("Diagnosis 0", withRecord.getMedicalRecord().getDiagnosis());
+        assertEquals("Plan 0", withRecord.getMedicalRecord().getTreatmentPlan());
+        assertNull(withoutRecord.getMedicalRecord());
+        assertNull(patientService.getPatient(ids.get(4) + 1000));
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getPatientsByEmail_ShouldReturnEveryMatchInOneStatement() {
+        List<PatientView> patients = patientService.getPatientsByEmail(" shared@example.com ");
+
+        assertEquals(ids.subList(0, 2), patients.stream().map(PatientView::getId).toList());
+        assertEquals("Diagnosis 1", patients.get(1).getMedicalRecord().getDiagnosis());
+        assertTrue(patientService.getPatientsByEmail("nobody@example.com").isEmpty());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertThrows(InvalidRequestException.class, () -> patientService.getPatientsByEmail(" "));
+    }
+
+    @Test
+    void getPatientsByIds_ShouldKeepTheRequestedOrderInOneStatement() {
+        List<Long> requested = Arrays.asList(ids.get(4), ids.get(0), ids.get(4) + 1000, ids.get(3), ids.get(0));
+
+        List<PatientView> patients = patientService.getPatientsByIds(requested);
+
+        assertEquals(List.of(ids.get(4), ids.get(0), ids.get(3)), patients.stream().map(PatientView::getId).toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getPatientsByIds_ShouldRejectOversizedBatches() {
+        List<Long> tooMany = LongStream.rangeClosed(1, PatientService.MAX_BATCH_SIZE + 1).boxed().collect(Collectors.toList());
+
+        assertThrows(InvalidRequestException.class, () -> patientService.getPatientsByIds(tooMany));
+        assertTrue(patientService.getPatientsByIds(List.of()).isEmpty());
+    }
+}
@@ -0,0 +1,217 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.example.entity.Comment;
+import org.example.entity.Hashtag;
+import org.example.entity.Post;
+import org.example.repository.HashtagRepository;
+import org.example.repository.PostRepository;
+import org.example.response.HashtagView;
+import org.example.response.PostDetail;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The read paths with the second-level and query cache on, as in production (AppConfig): repeated reads are served from
+// the cache, and every write path is seen by the next read. The regions live in a cache manager of their own, created
+// on first use: the JVM's default one is shared with the other test contexts.
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cache;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostService.class, HashtagService.class, PostCacheEvictor.class, TransactionRetrier.class, HashtagTrendingService.class,
+        HashtagPostingLists.class, ChangeEventOutbox.class, PostCacheTest.CacheManagerConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Cache entries are only written and evicted on commit
+class PostCacheTest {
+
+    // Imported only, not annotated: AppConfig's scan of org.example would otherwise pick it up wherever the test classes
+    // are on the classpath, as they are for the benchmarks
+    static class CacheManagerConfig {
+
+        @Bean(destroyMethod = "close")
+        CacheManager hibernateCacheManager() {
+            return Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                    .getCacheManager(URI.create("post-cache-test"), PostCacheTest.class.getClassLoader());
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+            return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+        }
+    }
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private HashtagRepository hashtagRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+
+        Post post = new Post();
+        post.setTitle("Cached");
+        post.setContent("Content");
+        id = postService.createPostWithCommentsAndHashtags(post,
+                new ArrayList<>(List.of(new Comment("a"), new Comment("b"))),
+                new ArrayList<>(List.of(hashtag("#one"), hashtag("#two")))).getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from change_event");
+        jdbcTemplate.update("delete from post_hashtag");
+        jdbcTemplate.update("delete from comment");
+        jdbcTemplate.update("delete from post"); // hashtags stay: HashtagService keeps their ids in memory
+    }
+
+    private static Hashtag hashtag(String name) {
+        Hashtag hashtag = new Hashtag();
+        hashtag.setName(name);
+        return hashtag;
+    }
+
+    @Test
+    void getPostDetail_ShouldServeTheSecondReadFromTheQueryCache() {
+        postService.getPostDetail(id);
+        statistics.clear();
+
+        PostDetail detail = postService.getPostDetail(id);
+
+        assertEquals("Cached", detail.getTitle());
+        assertEquals(2, detail.getComments().size());
+        assertEquals(3, statistics.getQueryCacheHitCount()); // posts, comment previews, hashtags
+        assertEquals(0, statistics.getQueryCacheMissCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findById_ShouldServeTheSecondReadFromTheEntityCache() {
+        postRepository.findById(id);
+        statistics.clear();
+
+        Post post = postRepository.findById(id).orElseThrow();
+
+        assertEquals("Cached", post.getTitle());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getPostDetail_ShouldSeeAnUpdate() {
+        postService.getPostDetail(id);
+        postRepository.findById(id);
+
+        Post update = new Post();
+        update.setTitle("Updated");
+        update.setContent("New content");
+        postService.updatePost(id, update, List.of(hashtag("#two"), hashtag("#three")));
+
+        PostDetail detail = postService.getPostDetail(id);
+        assertEquals("Updated", detail.getTitle());
+        assertEquals(List.of("#three", "#two"), detail.getHashtags().stream().map(HashtagView::getName).sorted().toList());
+        assertEquals("Updated", postRepository.findById(id).orElseThrow().getTitle());
+    }
+
+    @Test
+    void getPostDetail_ShouldSeeAppendedComments() {
+        postService.getPostDetail(id);
+
+        postService.appendComments(id, List.of(new Comment("c")));
+
+        PostDetail detail = postService.getPostDetail(id);
+        assertEquals(3, detail.getCommentCount());
+        assertEquals(3, detail.getComments().size());
+    }
+
+    @Test
+    void getPostDetail_ShouldSeeADelete() {
+        postService.getPostDetail(id);
+        postRepository.findById(id);
+
+        assertTrue(postService.deletePost(id));
+
+        assertNull(postService.getPostDetail(id));
+        assertTrue(postRepository.findById(id).isEmpty());
+    }
+
+    @Test
+    void getPostDetail_ShouldBypassTheQueryCacheWhileADeleteIsInFlight() {
+        postService.getPostDetail(id);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            postRepository.deleteWithChildren(List.of(id));
+            // Other transactions still see the post until the delete commits: they must neither be served the cached
+            // result nor cache theirs, which could otherwise be put after the eviction at commit and outlive it
+            statistics.clear();
+            CompletableFuture.runAsync(() -> postService.getPostDetail(id)).join();
+            CompletableFuture.runAsync(() -> postService.getPostDetail(id)).join();
+            assertEquals(0, statistics.getQueryCacheHitCount());
+        });
+
+        assertNull(postService.getPostDetail(id));
+    }
+
+    @Test
+    void getPostDetail_ShouldBypassTheQueryCacheForHashtagsWhileAPatchIsInFlight() {
+        postService.getPostDetail(id);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            hashtagRepository.removeFromPost(id, hashtagRepository.findByPostId(id).keySet());
+            statistics.clear();
+            CompletableFuture.runAsync(() -> postService.getPostDetail(id)).join();
+            CompletableFuture.runAsync(() -> postService.getPostDetail(id)).join();
+            // Posts and comment previews don't read post_hashtag and still come from the cache; hashtags don't
+            assertEquals(4, statistics.getQueryCacheHitCount());
+        });
+
+        assertTrue(postService.getPostDetail(id).getHashtags().isEmpty());
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.service;
+
+import org.example.repository.CommentRepository;
+import org.example.repository.HashtagRepository;
+import org.example.repository.PostRepository;
+import org.example.response.BulkIngestResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "app.ingest.chunk-size=2",
+        "app.ingest.flush-interval=1",
+        // PostgreSQL compatibility mode, for the native hashtag upsert (INSERT ... ON CONFLICT, nextval)
+        "spring.datasource.url=jdbc:h2:mem:ingest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class) // PostIngestService parses with the application's ObjectMapper
+@Import({PostIngestService.class, HashtagService.class, HashtagTrendingService.class, HashtagPostingLists.class, ChangeEventOutbox.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Every chunk commits its own transaction, so the test can't wrap them in one
+class PostIngestServiceTest {
+
+    @Autowired
+    private PostIngestService postIngestService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private HashtagRepository hashtagRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        // Committed rows would otherwise leak into the next test
+        jdbcTemplate.execute("delete from post_hashtag");
+        commentRepository.deleteAllInBatch();
+        postRepository.deleteAllInBatch();
+        hashtagRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void ingest_ShouldPersistNdjsonInChunks() throws IOException {
+        String body = "{\"post\":{\"title\":\"p1\"},\"comments\":[{\"text\":\"c1\"},{\"text\":\"c2\"}],\"hashtags\":[{\"name\":\"#a\"}]}\n"
+                + "{\"post\":{\"title\":\"p2\"},\"hashtags\":[{\"name\":\"#a\"},{\"name\":\"#b\"}]}\n"
+                + "{\"post\":{\"title\":\"p3\"}}\n";
+
+        BulkIngestResult result = postIngestService.ingest(stream(body));
+
+        assertEquals(2, result.getChunks().size());
+        assertEquals(3, result.getAccepted());
+        assertEquals(0, result.getRejected());
+        assertEquals(3, postRepository.count());
+        assertEquals(2, commentRepository.count());
+        assertEquals(2, hashtagRepository.count());
+    }
+
+    @Test
+    void ingest_ShouldRollBackOnlyTheFailingChunkOfJsonArray() throws IOException {
+        // The second chunk holds a post without the required title
+        String body = "[{\"post\":{\"title\":\"p1\"}}, {\"post\":{\"title\":\"p2\"}},"
+                + " {\"post\":{\"title\":\"p3\"}}, {\"post\":{}},"
+                + " {\"post\":{\"title\":\"p5\"}}]";
+
+        BulkIngestResult result = postIngestService.ingest(stream(body));
+
+        assertEquals(3, result.getChunks().size());
+        assertTrue(result.getChunks().get(0).isSuccess());
+        assertFalse(result.getChunks().get(1).isSuccess());
+        assertEquals(2, result.getChunks().get(1).getFirstRecord());
+        assertTrue(result.getChunks().get(2).isSuccess());
+        assertEquals(3, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        assertEquals(3, postRepository.count());
+    }
+
+    @Test
+    void ingest_ShouldKeepRecordsBeforeMalformedInput() throws IOException {
+        String body = "{\"post\":{\"title\":\"p1\"}}\n"
+                + "{\"post\":{\"title\":\"p2\"\n";
+
+        BulkIngestResult result = postIngestService.ingest(stream(body));
+
+        assertNotNull(result.getParseError());
+        assertEquals(1, result.getAccepted());
+        assertEquals(1, postRepository.count());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
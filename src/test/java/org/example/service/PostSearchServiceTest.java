@@ -0,0 +1,150 @@
+package org.example.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.example.entity.Hashtag;
+import org.example.entity.Post;
+import org.example.exception.InvalidRequestException;
+import org.example.repository.PostSearchRepository;
+import org.example.response.CursorPage;
+import org.example.response.PostSearchHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Full-text search needs PostgreSQL (tsvector, GIN, websearch_to_tsquery), so this runs against an embedded
+// PostgreSQL process instead of H2
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE) // Use the embedded PostgreSQL below
+@Import({PostSearchService.class, PostSearchRepository.class, PostService.class, HashtagService.class, PostCacheEvictor.class,
+        TransactionRetrier.class, HashtagTrendingService.class, HashtagPostingLists.class, ChangeEventOutbox.class})
+class PostSearchServiceTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private TestEntityManager testEntityManager; // Search runs over JDBC, so pending entity changes must be flushed first
+
+    private Post springPost;
+    private Post jpaPost;
+    private Post cookingPost;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) throws IOException {
+        if (postgres == null) {
+            postgres = EmbeddedPostgres.builder().start();
+            // Stopped with the JVM rather than after this class: the test context is cached and may outlive it
+            EmbeddedPostgres started = postgres;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.close();
+                } catch (IOException e) {
+                    // the process is going away anyway
+                }
+            }));
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @BeforeEach
+    void setUp() {
+        springPost = create("Getting started with Spring Boot", "Controllers, services and repositories", "#java", "#spring");
+        jpaPost = create("Tuning JPA queries", "Spring Data repositories and Hibernate fetch plans", "#java", "#jpa");
+        cookingPost = create("Sourdough at home", "Flour, water, salt and patience", "#food");
+        testEntityManager.flush();
+    }
+
+    @Test
+    void search_ShouldRankTitleMatchesFirst() {
+        CursorPage<PostSearchHit> page = postSearchService.search("spring", null, null, null);
+
+        // Both mention spring; only the first has it in the (higher weighted) title
+        assertEquals(Arrays.asList(springPost.getId(), jpaPost.getId()), ids(page));
+        assertTrue(page.getItems().get(0).getRank() > page.getItems().get(1).getRank());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void search_ShouldMatchStemmedWordsAndPhrases() {
+        assertEquals(Collections.singletonList(jpaPost.getId()), ids(postSearchService.search("tune query", null, null, null)));
+        assertEquals(Collections.singletonList(springPost.getId()), ids(postSearchService.search("\"spring boot\"", null, null, null)));
+        assertEquals(Collections.singletonList(jpaPost.getId()), ids(postSearchService.search("spring -boot", null, null, null)));
+    }
+
+    @Test
+    void search_ShouldRequireEveryTag() {
+        assertEquals(Collections.singletonList(jpaPost.getId()),
+                ids(postSearchService.search("spring", Arrays.asList("#java", " #jpa "), null, null)));
+        // Tags only: newest first
+        assertEquals(Arrays.asList(jpaPost.getId(), springPost.getId()), ids(postSearchService.search(null, Collections.singletonList("#java"), null, null)));
+        assertTrue(postSearchService.search("sourdough", Collections.singletonList("#java"), null, null).getItems().isEmpty());
+    }
+
+    @Test
+    void search_ShouldPageByOffset() {
+        CursorPage<PostSearchHit> first = postSearchService.search("spring", null, null, 1);
+        assertEquals(Collections.singletonList(springPost.getId()), ids(first));
+        assertEquals(1L, first.getNextCursor());
+
+        CursorPage<PostSearchHit> second = postSearchService.search("spring", null, first.getNextCursor(), 1);
+        assertEquals(Collections.singletonList(jpaPost.getId()), ids(second));
+    }
+
+    @Test
+    void search_ShouldSeeUpdatedContent() {
+        Post changes = new Post();
+        changes.setTitle(cookingPost.getTitle());
+        changes.setContent("Now with a Spring Boot starter");
+        postService.updatePost(cookingPost.getId(), changes, new ArrayList<>());
+        testEntityManager.flush();
+
+        assertTrue(ids(postSearchService.search("starter", null, null, null)).contains(cookingPost.getId()));
+    }
+
+    @Test
+    void search_ShouldRejectEmptyRequest() {
+        assertThrows(InvalidRequestException.class, () -> postSearchService.search("  ", Collections.singletonList(" "), null, null));
+    }
+
+    private Post create(String title, String content, String... hashtagNames) {
+        Post post = new Post();
+        post.setTitle(title);
+        post.setContent(content);
+        List<Hashtag> hashtags = new ArrayList<>();
+        for (String name : hashtagNames) {
+            Hashtag hashtag = new Hashtag();
+            hashtag.setName(name);
+            hashtags.add(hashtag);
+        }
+        return postService.createPostWithCommentsAndHashtags(post, new ArrayList<>(), hashtags);
+    }
+
+    private static List<Long> ids(CursorPage<PostSearchHit> page) {
+        return page.getItems().stream().map(PostSearchHit::getId).collect(Collectors.toList());
+    }
+}
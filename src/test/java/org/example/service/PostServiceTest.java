@@ -3,17 +3,29 @@ package org.example.service;
 import org.example.entity.Comment;
 import org.example.entity.Hashtag;
 import org.example.entity.Post;
+import org.example.exception.ConflictException;
 import org.example.exception.CustomServiceException;
 import org.example.repository.CommentRepository;
 import org.example.repository.HashtagRepository;
 import org.example.repository.PostRepository;
+import org.example.request.PostPatch;
+import org.example.response.CommentView;
+import org.example.response.CursorPage;
+import org.example.response.HashtagView;
+import org.example.response.PostDetail;
+import org.example.response.PostSummary;
+import org.example.response.PostVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.datasource.DataSourceUtils;
@@ -23,16 +35,27 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
-@DataJpaTest // Loads only JPA components, repositories, and configures an in-memory database for isolated testing without starting the full application context.
-@Import(PostService.class) // Imports PostService, allowing us to test it directly with only necessary beans (PostService and repositories) in the context.
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // Statement counts below are for the uncached path (and test transactions never commit, so entries would stay locked)
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        // PostgreSQL compatibility mode, for the native hashtag upsert (INSERT ... ON CONFLICT, nextval)
+        "spring.datasource.url=jdbc:h2:mem:posts;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+}) // Loads only JPA components, repositories, and configures an in-memory database for isolated testing without starting the full application context.
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE) // Keep the H2 URL above instead of a generated one
+@Import({PostService.class, HashtagService.class, PostCacheEvictor.class, TransactionRetrier.class, HashtagTrendingService.class, HashtagPostingLists.class, ChangeEventOutbox.class}) // Imports PostService, allowing us to test it directly with only necessary beans (PostService and repositories) in the context.
 @Transactional // Ensures that each test runs within a transaction, rolling back changes afterward to keep the database clean for the next test.
 @Rollback // Explicitly rolls back any changes made in each test, maintaining a consistent initial database state for each test run.
 class PostServiceTest {
@@ -53,6 +76,9 @@ class PostServiceTest {
     @Autowired
     private DataSource dataSource;
 
+    @Autowired
+    private TestEntityManager testEntityManager; // Used to flush and clear the persistence context so reads really hit the database
+
     private Post post;
     private List<Comment> comments;
     private List<Hashtag> hashtags;
@@ -62,7 +88,13 @@ class PostServiceTest {
         // Setting up initial data for each test run
         post = new Post();
         comments = Arrays.asList(new Comment(), new Comment());
-        hashtags = Arrays.asList(new Hashtag(), new Hashtag());
+        hashtags = Arrays.asList(hashtag("#sunset"), hashtag("#beach"));
+    }
+
+    private static Hashtag hashtag(String name) {
+        Hashtag hashtag = new Hashtag();
+        hashtag.setName(name);
+        return hashtag;
     }
 
     @Test
@@ -95,6 +127,430 @@ class PostServiceTest {
 //            assertEquals("DATABASE_ERROR", exception.getErrorCode());
 //    }
 
+    @Test
+    void createPostWithCommentsAndHashtags_ShouldReuseExistingHashtagRows() {
+        post.setTitle("First");
+        postService.createPostWithCommentsAndHashtags(post, new ArrayList<>(), hashtags);
+
+        Post second = new Post();
+        second.setTitle("Second");
+        Post result = postService.createPostWithCommentsAndHashtags(second, new ArrayList<>(),
+                Arrays.asList(hashtag("#sunset"), hashtag("#sunset"), hashtag("#hiking")));
+
+        // #sunset is shared by both posts and listed once on the second one
+        assertEquals(3, hashtagRepository.findAll().size());
+        assertEquals(List.of("#sunset", "#hiking"), result.getHashtags().stream().map(Hashtag::getName).toList());
+    }
+
+    @Test
+    void getPostDetails_ShouldWalkPagesByKeysetCursor() {
+        // Arrange: five posts, read back two at a time
+        for (int i = 0; i < 5; i++) {
+            Post p = new Post();
+            p.setTitle("Post " + i);
+            postRepository.save(p);
+        }
+
+        // Act: follow nextCursor until it runs out
+        List<String> titles = new ArrayList<>();
+        Long cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<PostDetail> page = postService.getPostDetails(cursor, 2);
+            page.getItems().forEach(p -> titles.add(p.getTitle()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Assert: every post is returned exactly once, in id order
+        assertEquals(List.of("Post 0", "Post 1", "Post 2", "Post 3", "Post 4"), titles);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void streamAllPosts_ShouldVisitEveryPostInIdOrder() {
+        for (int i = 0; i < 3; i++) {
+            Post p = new Post();
+            p.setTitle("Post " + i);
+            postRepository.save(p);
+        }
+
+        List<String> titles = new ArrayList<>();
+        postService.streamAllPosts(p -> titles.add(p.getTitle()));
+
+        assertEquals(List.of("Post 0", "Post 1", "Post 2"), titles);
+    }
+
+    @Test
+    void getPostDetails_ShouldLoadPageWithCommentsAndHashtagsInConstantStatements() {
+        // Arrange: ten posts, each with comments and hashtags, and an empty persistence context
+        for (int i = 0; i < 10; i++) {
+            Post p = new Post();
+            p.setTitle("Post " + i);
+            postService.createPostWithCommentsAndHashtags(p,
+                    new ArrayList<>(List.of(new Comment("a"), new Comment("b"))),
+                    new ArrayList<>(List.of(hashtag("#a"), hashtag("#b"))));
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act: load the page
+        CursorPage<PostDetail> page = postService.getPostDetails(null, 10);
+        int comments = page.getItems().stream().mapToInt(p -> p.getComments().size()).sum();
+        int hashtags = page.getItems().stream().mapToInt(p -> p.getHashtags().size()).sum();
+
+        // Assert: posts, comment previews, hashtags -- three statements regardless of the page size
+        assertEquals(20, comments);
+        assertEquals(20, hashtags);
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getPostById_ShouldLoadCommentsAndHashtagsInTwoStatements() {
+        post.setTitle("Valid Title");
+        Long id = postService.createPostWithCommentsAndHashtags(post, comments, hashtags).getId();
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Post result = postService.getPostById(id);
+
+        assertEquals(2, result.getComments().size());
+        assertEquals(2, result.getHashtags().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getPostDetail_ShouldProjectWithoutLoadingEntities() {
+        post.setTitle("Valid Title");
+        Long id = postService.createPostWithCommentsAndHashtags(post, comments, hashtags).getId();
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PostDetail result = postService.getPostDetail(id);
+
+        // post row, comment rows, hashtag rows -- and nothing hydrated as an entity
+        assertEquals("Valid Title", result.getTitle());
+        assertEquals(2, result.getComments().size());
+        assertEquals(List.of("#sunset", "#beach"), result.getHashtags().stream().map(HashtagView::getName).sorted(Comparator.reverseOrder()).toList());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertNull(postService.getPostDetail(id + 1000));
+    }
+
+    @Test
+    void getPostSummaries_ShouldCountCommentsInOneStatement() {
+        for (int i = 0; i < 3; i++) {
+            Post p = new Post();
+            p.setTitle("Post " + i);
+            postService.createPostWithCommentsAndHashtags(p,
+                    IntStream.range(0, i).mapToObj(n -> new Comment("c")).collect(Collectors.toList()), new ArrayList<>());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        CursorPage<PostSummary> page = postService.getPostSummaries(null, 2);
+
+        assertEquals(List.of(0, 1), page.getItems().stream().map(PostSummary::getCommentCount).toList());
+        assertEquals(page.getItems().get(1).getId(), page.getNextCursor());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getPostSummariesByHashtag_ShouldPageNewestFirst() {
+        List<Long> tagged = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Post p = new Post();
+            p.setTitle("Post " + i);
+            List<Hashtag> tags = i % 2 == 0 ? List.of(hashtag("#paged"), hashtag("#other")) : List.of(hashtag("#other"));
+            Long id = postService.createPostWithCommentsAndHashtags(p, List.of(new Comment("c")), tags).getId();
+            if (i % 2 == 0) {
+                tagged.add(0, id);
+            }
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        // The first read goes to the index, the second builds the in-memory list; both must agree
+        for (int read = 0; read < 2; read++) {
+            CursorPage<PostSummary> first = postService.getPostSummariesByHashtag(" #paged ", null, 2);
+            assertEquals(tagged.subList(0, 2), first.getItems().stream().map(PostSummary::getId).toList());
+            assertEquals(tagged.get(1), first.getNextCursor());
+            assertEquals(1, first.getItems().get(0).getCommentCount());
+
+            CursorPage<PostSummary> last = postService.getPostSummariesByHashtag("#paged", first.getNextCursor(), 2);
+            assertEquals(tagged.subList(2, 3), last.getItems().stream().map(PostSummary::getId).toList());
+            assertNull(last.getNextCursor());
+        }
+        assertTrue(postService.getPostSummariesByHashtag("#unknown", null, null).getItems().isEmpty());
+    }
+
+    @Test
+    void getPostDetail_ShouldPreviewTheFirstCommentsAndCountAll() {
+        post.setTitle("Viral");
+        Long id = postService.createPostWithCommentsAndHashtags(post,
+                IntStream.range(0, PostService.COMMENT_PREVIEW_SIZE + 5).mapToObj(n -> new Comment("c" + n)).collect(Collectors.toList()),
+                new ArrayList<>()).getId();
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        PostDetail result = postService.getPostDetail(id);
+
+        assertEquals(PostService.COMMENT_PREVIEW_SIZE + 5, result.getCommentCount());
+        assertEquals(PostService.COMMENT_PREVIEW_SIZE, result.getComments().size());
+        assertEquals("c0", result.getComments().get(0).getText());
+    }
+
+    @Test
+    void getComments_ShouldWalkPagesByKeysetCursor() {
+        post.setTitle("Commented");
+        Long id = postService.createPostWithCommentsAndHashtags(post,
+                IntStream.range(0, 5).mapToObj(n -> new Comment("c" + n)).collect(Collectors.toList()), new ArrayList<>()).getId();
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        List<String> texts = new ArrayList<>();
+        Long cursor = null;
+        do {
+            CursorPage<CommentView> page = postService.getComments(id, cursor, 2);
+            assertTrue(page.getItems().size() <= 2);
+            page.getItems().forEach(comment -> texts.add(comment.getText()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("c0", "c1", "c2", "c3", "c4"), texts);
+        assertNull(postService.getComments(id + 1000, null, null));
+    }
+
+    @Test
+    void appendComments_ShouldInsertAndCountWithoutLoadingThePost() {
+        post.setTitle("Commented");
+        Long id = postService.createPostWithCommentsAndHashtags(post, comments, hashtags).getId();
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<CommentView> saved = postService.appendComments(id, List.of(new Comment("new 1"), new Comment("new 2"), new Comment("new 3")));
+        testEntityManager.flush();
+
+        assertEquals(List.of("new 1", "new 2", "new 3"), saved.stream().map(CommentView::getText).toList());
+        assertTrue(saved.stream().allMatch(comment -> comment.getId() != null));
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        testEntityManager.clear();
+        assertEquals(5, postService.getPostSummaries(id - 1, 1).getItems().get(0).getCommentCount());
+        assertEquals(5, postService.getComments(id, null, null).getItems().size());
+        assertNull(postService.appendComments(id + 1000, List.of(new Comment("orphan"))));
+    }
+
+    @Test
+    void getPostSummaries_ShouldCountCommentsOfPostsNotCountedYet() {
+        post.setTitle("Legacy");
+        Long id = postService.createPostWithCommentsAndHashtags(post, comments, hashtags).getId();
+        testEntityManager.flush();
+        // As a row written before the column existed
+        testEntityManager.getEntityManager().createNativeQuery("update post set comment_count = null where id = " + id).executeUpdate();
+        testEntityManager.clear();
+
+        assertEquals(2, postService.getPostSummaries(id - 1, 1).getItems().get(0).getCommentCount());
+        assertEquals(2, postService.getPostDetail(id).getCommentCount());
+    }
+
+    @Test
+    void commentCountBackfill_ShouldCountPostsNotCountedYetInBatches() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Post legacy = new Post();
+            legacy.setTitle("Legacy " + i);
+            ids.add(postService.createPostWithCommentsAndHashtags(legacy,
+                    new ArrayList<>(List.of(new Comment("a"), new Comment("b"))), new ArrayList<>()).getId());
+        }
+        testEntityManager.flush();
+        testEntityManager.getEntityManager().createNativeQuery("update post set comment_count = null").executeUpdate();
+
+        // Two posts per statement: a full batch, then the last one
+        assertEquals(3, new CommentCountBackfill(commentRepository, true, 2).backfill());
+
+        for (Long id : ids) {
+            Object count = testEntityManager.getEntityManager()
+                    .createNativeQuery("select comment_count from post where id = " + id).getSingleResult();
+            assertEquals(2, ((Number) count).intValue());
+        }
+    }
+
+    @Test
+    void getPostVersion_ShouldChangeWithEveryWriteToThePostOrItsComments() {
+        post.setTitle("Versioned");
+        Long id = postService.createPostWithCommentsAndHashtags(post, new ArrayList<>(comments), hashtags).getId();
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PostVersion created = postService.getPostVersion(id);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertNotNull(created.getUpdatedAt());
+        assertEquals(PostVersion.of(postService.getPostDetail(id)).getETag(), created.getETag());
+        assertNull(postService.getPostVersion(id + 1000));
+
+        // Only the hashtags change: still a new version
+        Post changes = new Post();
+        changes.setTitle("Versioned");
+        postService.updatePost(id, changes, List.of(hashtag("#dawn")));
+        testEntityManager.flush();
+        testEntityManager.clear();
+        PostVersion retagged = postService.getPostVersion(id);
+        assertNotEquals(created.getETag(), retagged.getETag());
+        assertFalse(retagged.getUpdatedAt().isBefore(created.getUpdatedAt()));
+
+        // Appends don't touch the version, but the comment count
+        postService.appendComments(id, List.of(new Comment("Later")));
+        testEntityManager.clear();
+        PostVersion commented = postService.getPostVersion(id);
+        assertEquals(retagged.getVersion(), commented.getVersion());
+        assertNotEquals(retagged.getETag(), commented.getETag());
+        assertFalse(commented.getUpdatedAt().isBefore(retagged.getUpdatedAt()));
+    }
+
+    @Test
+    void updatePost_ShouldBumpVersion() {
+        post.setTitle("Original");
+        Long id = postService.createPostWithCommentsAndHashtags(post, new ArrayList<>(comments), hashtags).getId(); // save() merges into it
+        Long version = post.getVersion();
+
+        Post changes = new Post();
+        changes.setTitle("Edited");
+        changes.setVersion(version);
+        postService.updatePost(id, changes, hashtags);
+        testEntityManager.flush();
+
+        assertEquals(version + 1, postRepository.findById(id).orElseThrow().getVersion());
+    }
+
+    @Test
+    void patchPost_ShouldWriteOnlyTheHashtagDiff() {
+        post.setTitle("Tagged");
+        Long id = postService.createPostWithCommentsAndHashtags(post, new ArrayList<>(comments),
+                Arrays.asList(hashtag("#a"), hashtag("#b"), hashtag("#c"))).getId();
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Long version = postRepository.findById(id).orElseThrow().getVersion();
+        testEntityManager.clear();
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PostPatch patch = new PostPatch();
+        patch.setHashtags(List.of(hashtag("#b"), hashtag(" #d "), hashtag("#c")));
+        PostVersion patched = postService.patchPost(id, patch);
+
+        // Only the post row is loaded, and the hashtag collection is never loaded, removed or recreated
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertEquals(0, statistics.getCollectionRemoveCount());
+        assertEquals(0, statistics.getCollectionRecreateCount());
+        assertEquals(version + 1, patched.getVersion()); // a tags-only change is still a new version
+        testEntityManager.clear();
+        assertEquals(List.of("#b", "#c", "#d"), postService.getPostDetail(id).getHashtags().stream().map(HashtagView::getName).sorted().toList());
+        assertEquals("Tagged", postRepository.findById(id).orElseThrow().getTitle());
+    }
+
+    @Test
+    void patchPost_ShouldChangeOnlyTheFieldsGiven() {
+        post.setTitle("Original");
+        post.setContent("Kept");
+        Long id = postService.createPostWithCommentsAndHashtags(post, new ArrayList<>(comments), hashtags).getId();
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Long version = postRepository.findById(id).orElseThrow().getVersion();
+        testEntityManager.clear();
+
+        PostPatch patch = new PostPatch();
+        patch.setTitle("Patched");
+        patch.setVersion(version);
+        assertEquals(version + 1, postService.patchPost(id, patch).getVersion());
+        testEntityManager.clear();
+
+        Post result = postRepository.findById(id).orElseThrow();
+        assertEquals("Patched", result.getTitle());
+        assertEquals("Kept", result.getContent());
+        assertEquals(2, result.getHashtags().size());
+        testEntityManager.clear();
+        // A value the post already has writes nothing
+        assertEquals(version + 1, postService.patchPost(id, titleOnly("Patched")).getVersion());
+        assertThrows(ConflictException.class, () -> postService.patchPost(id, patch)); // based on the old version
+        assertNull(postService.patchPost(id + 1000, new PostPatch()));
+    }
+
+    @Test
+    void deletePosts_ShouldDeleteCommentsAndLinksButKeepSharedHashtags() {
+        post.setTitle("Deleted");
+        Long deletedId = postService.createPostWithCommentsAndHashtags(post, new ArrayList<>(comments),
+                Arrays.asList(hashtag("#shared"), hashtag("#only-deleted"))).getId();
+        Post other = new Post();
+        other.setTitle("Kept");
+        other.setContent("Kept content");
+        Long keptId = postService.createPostWithCommentsAndHashtags(other, new ArrayList<>(List.of(new Comment("Stays"))),
+                List.of(hashtag("#shared"))).getId();
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertEquals(List.of(deletedId), postService.deletePosts(List.of(keptId + 1000, deletedId)));
+
+        // Nothing was loaded to delete it
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertFalse(postRepository.existsById(deletedId));
+        assertTrue(commentRepository.findAll().stream().allMatch(comment -> comment.getPost().getId().equals(keptId)));
+        assertEquals(2, hashtagRepository.findAll().size()); // #only-deleted stays as well
+        assertEquals(List.of("#shared"), postService.getPostDetail(keptId).getHashtags().stream().map(HashtagView::getName).toList());
+        assertEquals(1, postService.getPostDetail(keptId).getCommentCount());
+
+        assertFalse(postService.deletePost(deletedId));
+        assertTrue(postService.deletePost(keptId));
+        assertTrue(commentRepository.findAll().isEmpty());
+    }
+
+    private static PostPatch titleOnly(String title) {
+        PostPatch patch = new PostPatch();
+        patch.setTitle(title);
+        return patch;
+    }
+
+    @Test
+    void updatePost_ShouldRejectStaleVersion() {
+        post.setTitle("Original");
+        Long id = postService.createPostWithCommentsAndHashtags(post, comments, hashtags).getId();
+
+        Post changes = new Post();
+        changes.setTitle("Edited from an old copy");
+        changes.setVersion(post.getVersion() - 1);
+
+        ConflictException exception = assertThrows(ConflictException.class, () -> postService.updatePost(id, changes, hashtags));
+        assertEquals("CONFLICT", exception.getErrorCode());
+        assertEquals("Original", postRepository.findById(id).orElseThrow().getTitle());
+    }
+
     @Test
     void createPostWithCommentsAndHashtags_ShouldThrowCustomServiceException_OnUnknownError() {
         // Simulates failure due to null title
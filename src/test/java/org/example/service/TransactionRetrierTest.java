@@ -0,0 +1,79 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.entity.Post;
+import org.example.exception.ConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransactionRetrierTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionRetrier retrier;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(meterRegistry);
+        retrier = new TransactionRetrier(transactionManager, 3, Duration.ZERO, Duration.ZERO, provider);
+    }
+
+    @Test
+    void execute_ShouldRetryOptimisticLockFailuresInFreshTransactions() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = retrier.execute("updatePost", status -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Post.class, 1L);
+            }
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        verify(transactionManager, times(3)).getTransaction(any());
+        assertEquals(2, count("post.write.conflicts"));
+        assertEquals(2, count("post.write.retries"));
+        assertEquals(0, count("post.write.retries.exhausted"));
+    }
+
+    @Test
+    void execute_ShouldGiveUpWithConflictAfterMaxAttempts() {
+        ConflictException exception = assertThrows(ConflictException.class, () -> retrier.execute("updatePost", status -> {
+            throw new ObjectOptimisticLockingFailureException(Post.class, 1L);
+        }));
+
+        assertEquals("CONFLICT", exception.getErrorCode());
+        assertEquals(3, count("post.write.conflicts"));
+        assertEquals(2, count("post.write.retries"));
+        assertEquals(1, count("post.write.retries.exhausted"));
+    }
+
+    @Test
+    void execute_ShouldNotRetryOtherFailures() {
+        assertThrows(IllegalStateException.class, () -> retrier.execute("updatePost", status -> {
+            throw new IllegalStateException("not a conflict");
+        }));
+
+        verify(transactionManager, times(1)).getTransaction(any());
+        assertEquals(0, count("post.write.conflicts"));
+    }
+
+    private double count(String name) {
+        return meterRegistry.find(name).tag("operation", "updatePost").counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.service;
+
+import org.example.entity.Bio;
+import org.example.entity.ProfilePicture;
+import org.example.entity.User;
+import org.example.exception.InvalidRequestException;
+import org.example.response.UserProfile;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(UserService.class)
+class UserServiceTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 4; i++) {
+            User user = new User();
+            user.setUsername(i == 3 ? "user0" : "user" + i); // user0 taken twice
+            if (i != 1) {
+                Bio bio = new Bio();
+                bio.setBioData("Bio " + i);
+                user.setBio(bio);
+            }
+            if (i != 2) {
+                ProfilePicture picture = new ProfilePicture();
+                picture.setImageUrl("https://img.example.com/" + i + ".png");
+                user.setProfilePicture(picture);
+            }
+            ids.add(userService.createUser(user).getId());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics = testEntityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getProfile_ShouldJoinBioAndPictureInOneStatement() {
+        UserProfile full = userService.getProfile(ids.get(0));
+        UserProfile withoutBio = userService.getProfile(ids.get(1));
+        UserProfile withoutPicture = userService.getProfile(ids.get(2));
+
+        assertEquals("user0", full.getUsername());
+        assertEquals("Bio 0", full.getBio());
+        assertEquals("https://img.example.com/0.png", full.getImageUrl());
+        assertNull(withoutBio.getBio());
+        assertEquals("https://img.example.com/1.png", withoutBio.getImageUrl());
+        assertNull(withoutPicture.getImageUrl());
+        assertNull(userService.getProfile(ids.get(3) + 1000));
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getProfilesByIds_ShouldKeepTheRequestedOrderInOneStatement() {
+        List<Long> requested = Arrays.asList(ids.get(2), ids.get(0), ids.get(3) + 1000, ids.get(1), ids.get(0));
+
+        List<UserProfile> profiles = userService.getProfilesByIds(requested);
+
+        assertEquals(List.of(ids.get(2), ids.get(0), ids.get(1)), profiles.stream().map(UserProfile::getId).toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getProfilesByUsernames_ShouldResolveTakenNamesToTheOldestAccount() {
+        List<UserProfile> profiles = userService.getProfilesByUsernames(List.of("user2", " user0 ", "nobody"));
+
+        assertEquals(List.of(ids.get(2), ids.get(0)), profiles.stream().map(UserProfile::getId).toList());
+        assertEquals(ids.get(1), userService.getProfileByUsername("user1").getId());
+        assertNull(userService.getProfileByUsername("nobody"));
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getProfilesByIds_ShouldRejectOversizedBatches() {
+        List<Long> tooMany = LongStream.rangeClosed(1, UserService.MAX_BATCH_SIZE + 1).boxed().collect(Collectors.toList());
+
+        assertThrows(InvalidRequestException.class, () -> userService.getProfilesByIds(tooMany));
+        assertTrue(userService.getProfilesByUsernames(List.of()).isEmpty());
+    }
+}